@@ -0,0 +1,17 @@
+package com.banana.hypersudoku;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//Entry point of benchmarks.jar. Takes the usual JMH command line and always adds the GC profiler, so every run reports
+//the allocation rate (gc.alloc.rate.norm is bytes per operation) next to the time. For example
+//java -jar target/benchmarks.jar SolverBenchmark.backTrack -p board=hard
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.banana.hypersudoku;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.Scanner;
+
+//The boards the benchmarks run on: the input boards of the project, packaged under boards/ on the classpath, and
+//boards generated from a solution of Input1 with a fixed seed, so every run measures the same boards. The 16 x 16 Hyper
+//Sudoku boards of the general search are generated the same way from a solution of the empty board.
+class Boards {
+
+    //Every board name accepted by load
+    public static final String[] NAMES = {"Input1", "Input2", "Input3", "easy", "medium", "hard", "unsolvable"};
+
+    private static final long SEED = 4613;
+
+    //Givens left on the generated easy and medium boards. Hard boards have as few as still gives one solution
+    private static final int EASY_GIVENS = 40;
+    private static final int MEDIUM_GIVENS = 30;
+
+    //Every 16 x 16 board name accepted by loadHyper16
+    public static final String[] HYPER16_NAMES = {"empty", "givens"};
+
+    //Givens left on the generated 16 x 16 board. The general search cannot count solutions, so it may have several
+    private static final int HYPER16_GIVENS = 60;
+
+    //Return a fresh copy of the board of the given name
+    public static Integer[][] load(String name) throws IOException {
+        switch(name) {
+            case "easy":
+                return generate(EASY_GIVENS, new Random(SEED));
+            case "medium":
+                return generate(MEDIUM_GIVENS, new Random(SEED));
+            case "hard":
+                return generate(0, new Random(SEED));
+            case "unsolvable":
+                return unsolvable(generate(MEDIUM_GIVENS, new Random(SEED)), new Random(SEED));
+            default:
+                return read(name);
+        }
+    }
+
+    //Return a fresh copy of the 16 x 16 Hyper Sudoku board of the given name, cells in row order as GeneralBoard takes
+    //them: the empty board, or HYPER16_GIVENS random cells of the solution the general search finds for it
+    public static int[] loadHyper16(String name) {
+        Geometry geometry = Geometry.hyperWithImplied(4);
+        switch(name) {
+            case "empty":
+                return new int[geometry.size];
+            case "givens":
+                GeneralBoard board = GeneralBoard.fromCells(geometry, new int[geometry.size]);
+                if(!GeneralSearch.solve(board, GeneralSearch.defaultRestartUnit(geometry), SEED)) {
+                    throw new IllegalStateException("Could not solve the empty 16 x 16 board");
+                }
+                int[] cells = board.cells.clone();
+                int[] order = shuffled(geometry.size, new Random(SEED));
+                for(int i = HYPER16_GIVENS; i < order.length; i++) {
+                    cells[order[i]] = 0;
+                }
+                return cells;
+            default:
+                throw new IllegalArgumentException("No 16 x 16 board named " + name);
+        }
+    }
+
+    //Read one of the input boards from the classpath
+    private static Integer[][] read(String name) throws IOException {
+        Integer[][] assignment = new Integer[Program.ROW][Program.COL];
+        try(InputStream input = Boards.class.getResourceAsStream("/boards/" + name + ".txt")) {
+            if(input == null) {
+                throw new IOException("No board named " + name);
+            }
+            Scanner scanner = new Scanner(input);
+            for(int row = 0; row < Program.ROW; row++) {
+                for(int col = 0; col < Program.COL; col++) {
+                    assignment[row][col] = scanner.nextInt();
+                }
+            }
+        }
+        return assignment;
+    }
+
+    //Take a random equivalent of the solution of Input1 (see Symmetry) and blank random cells as long as the board keeps
+    //a single solution, until only givens cells are left or no cell can be blanked
+    private static Integer[][] generate(int givens, Random random) throws IOException {
+        Solver solver = new Solver("dlx");
+        Integer[][] solved = solver.solve(read("Input1")).solution;
+        int[] map = Symmetry.CELL_MAPS[random.nextInt(Symmetry.CELL_MAPS.length)];
+        int[] labels = shuffled(Program.DOMAIN, random);
+        Integer[][] assignment = new Integer[Program.ROW][Program.COL];
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            int from = map[cell];
+            assignment[Topology.ROW_OF[cell]][Topology.COL_OF[cell]] =
+                    labels[solved[Topology.ROW_OF[from]][Topology.COL_OF[from]] - 1] + 1;
+        }
+        int left = Board.SIZE;
+        int[] order = shuffled(Board.SIZE, random);
+        for(int i = 0; i < order.length && left > givens; i++) {
+            int row = Topology.ROW_OF[order[i]];
+            int col = Topology.COL_OF[order[i]];
+            int value = assignment[row][col];
+            assignment[row][col] = 0;
+            if(solver.count(assignment, 2).solutionCount == 1) {
+                left--;
+            }
+            else {
+                assignment[row][col] = value;
+            }
+        }
+        return assignment;
+    }
+
+    //Give a blank cell of a board with a single solution a value that breaks no constraint on its own but differs from
+    //the solution, so the board has no solution and the search has to prove it
+    private static Integer[][] unsolvable(Integer[][] assignment, Random random) {
+        Solver solver = new Solver("dlx");
+        Integer[][] solved = solver.solve(assignment).solution;
+        int[] order = shuffled(Board.SIZE, random);
+        for(int cell : order) {
+            int row = Topology.ROW_OF[cell];
+            int col = Topology.COL_OF[cell];
+            if(assignment[row][col] == 0) {
+                for(int value = 1; assignment[row][col] == 0 && value <= Program.DOMAIN; value++) {
+                    assignment[row][col] = value;
+                    boolean wrong = value != solved[row][col] && Constraint.isValid(assignment);
+                    if(!wrong || solver.count(assignment, 1).solutionCount != 0) {
+                        assignment[row][col] = 0;
+                    }
+                }
+                if(assignment[row][col] != 0) {
+                    return assignment;
+                }
+            }
+        }
+        throw new IllegalStateException("Could not make the board unsolvable");
+    }
+
+    //Return 0 to n - 1 in random order
+    private static int[] shuffled(int n, Random random) {
+        int[] values = new int[n];
+        for(int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for(int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
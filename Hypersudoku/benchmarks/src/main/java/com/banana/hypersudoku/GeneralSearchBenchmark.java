@@ -0,0 +1,49 @@
+package com.banana.hypersudoku;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//Benchmarks of GeneralSearch on the 16 x 16 Hyper Sudoku boards of Boards, restarting as Program.executeGeneral does by
+//default. Past 9 x 9 a single solve takes up to hundreds of milliseconds, so iterations are longer than those of
+//SolverBenchmark. The random tie-breaking is seeded the same on every solve, so each one searches the same tree.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneralSearchBenchmark {
+
+    private static final long SEED = 4613;
+
+    @Param({"empty", "givens"})
+    public String board;
+
+    private Geometry geometry;
+
+    private int[] cells;
+
+    @Setup
+    public void setup() {
+        geometry = Geometry.hyperWithImplied(4);
+        cells = Boards.loadHyper16(board);
+    }
+
+    //Solve the board from scratch, forward checking included
+    @Benchmark
+    public boolean solve() {
+        return GeneralSearch.solve(GeneralBoard.fromCells(geometry, cells), GeneralSearch.defaultRestartUnit(geometry),
+                SEED);
+    }
+}
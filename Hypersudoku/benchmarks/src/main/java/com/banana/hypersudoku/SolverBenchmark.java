@@ -0,0 +1,125 @@
+package com.banana.hypersudoku;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//Benchmarks of the hot paths of the solver on every board of Boards. Each step has a benchmark for the Pos based
+//version and one for the flat Board version the engines use. The forward checking benchmarks include building the
+//variableArray or Board they work on, since forward checking changes it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    @Param({"Input1", "Input2", "Input3", "easy", "medium", "hard", "unsolvable"})
+    public String board;
+
+    //The engine of the end-to-end benchmark, see Engine.forName
+    @State(Scope.Thread)
+    public static class EngineState {
+
+        @Param({"backtrack", "dlx"})
+        public String engine;
+    }
+
+    private Integer[][] assignment;
+
+    //After forward checking, as the search first sees them
+    private Pos[][] variableArray;
+
+    private Board flat;
+
+    //The cells blank on the board
+    private int[] blanks;
+
+    @Setup
+    public void setup() throws IOException {
+        assignment = Boards.load(board);
+        variableArray = new Pos[Program.ROW][Program.COL];
+        Program.initializeVar(variableArray, assignment);
+        Constraint.forwardChecking(assignment, variableArray);
+        flat = Board.fromAssignment(assignment);
+        Constraint.forwardChecking(flat);
+        blanks = new int[flat.unassigned];
+        int next = 0;
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            if(flat.cells[cell] == 0) {
+                blanks[next++] = cell;
+            }
+        }
+    }
+
+    //Every value on every blank cell
+    @Benchmark
+    public int isConsistentPos() {
+        int consistent = 0;
+        for(int cell : blanks) {
+            Pos variable = variableArray[Topology.ROW_OF[cell]][Topology.COL_OF[cell]];
+            for(int value = 1; value <= Program.DOMAIN; value++) {
+                if(Constraint.isConsistent(variable, value, assignment)) {
+                    consistent++;
+                }
+            }
+        }
+        return consistent;
+    }
+
+    @Benchmark
+    public int isConsistentBoard() {
+        int consistent = 0;
+        for(int cell : blanks) {
+            for(int value = 1; value <= Program.DOMAIN; value++) {
+                if(Constraint.isConsistent(flat, cell, value)) {
+                    consistent++;
+                }
+            }
+        }
+        return consistent;
+    }
+
+    @Benchmark
+    public boolean forwardCheckingPos() {
+        Pos[][] variables = new Pos[Program.ROW][Program.COL];
+        Program.initializeVar(variables, assignment);
+        return Constraint.forwardChecking(assignment, variables);
+    }
+
+    @Benchmark
+    public boolean forwardCheckingBoard() {
+        return Constraint.forwardChecking(Board.fromAssignment(assignment));
+    }
+
+    @Benchmark
+    public Pos selectUnassignedVariablePos() {
+        return Heuristic.selectUnassignedVariable(variableArray);
+    }
+
+    @Benchmark
+    public int selectUnassignedVariableBoard() {
+        return Heuristic.selectUnassignedVariable(flat);
+    }
+
+    //Solve a copy of the board from scratch, forward checking included
+    @Benchmark
+    public boolean backTrack(EngineState state) {
+        Integer[][] copy = Solver.copyBoard(assignment);
+        Pos[][] variables = new Pos[Program.ROW][Program.COL];
+        Program.initializeVar(variables, copy);
+        return Program.backTrack(copy, variables, Engine.forName(state.engine));
+    }
+}
@@ -0,0 +1,45 @@
+package com.banana.hypersudoku;
+
+//ArcQueue is the work queue of AC-3. For an inequality constraint, the arc (neighbor, cell) can only remove a value
+//from the neighbor once the cell is down to a single value, so instead of arcs the queue holds the cells whose arcs
+//towards all their neighbors need revising. A cell is queued at most once, so the queue never grows past the board
+//and is allocated once per Board.
+class ArcQueue {
+
+    private final int[] cells = new int[Topology.SIZE];
+
+    private final boolean[] queued = new boolean[Topology.SIZE];
+
+    private int head;
+
+    private int size;
+
+    //Queue a cell unless it is already waiting
+    public void add(int cell) {
+        if(!queued[cell]) {
+            queued[cell] = true;
+            cells[(head + size) % cells.length] = cell;
+            size++;
+        }
+    }
+
+    //Take the next cell off the queue. The queue must not be empty
+    public int poll() {
+        int cell = cells[head];
+        queued[cell] = false;
+        head = (head + 1) % cells.length;
+        size--;
+        return cell;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //Drop every waiting cell, used when propagation fails half way
+    public void clear() {
+        while(!isEmpty()) {
+            poll();
+        }
+    }
+}
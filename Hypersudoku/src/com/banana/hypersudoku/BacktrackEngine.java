@@ -0,0 +1,74 @@
+package com.banana.hypersudoku;
+
+//The CSP backtrack algorithm of Program as an Engine, with its inference and rules fixed when the engine is created
+class BacktrackEngine implements Engine {
+
+    private final Propagation propagation;
+
+    private final RulePropagator rules;
+
+    private final SearchOrder order;
+
+    private final boolean backjumping;
+
+    private final int nogoodCapacity;
+
+    //Forward checking only, as the project asks for
+    public BacktrackEngine() {
+        this(Propagation.FORWARD_CHECKING, null);
+    }
+
+    //rules may be null for none
+    public BacktrackEngine(Propagation propagation, RulePropagator rules) {
+        this(propagation, rules, SearchOrder.DEFAULT);
+    }
+
+    //Same as above, ordering the search by order. Restarts only apply to solve; count walks the whole tree once
+    public BacktrackEngine(Propagation propagation, RulePropagator rules, SearchOrder order) {
+        this(propagation, rules, order, false, 0);
+    }
+
+    //Same as above, with conflict-directed backjumping if backjumping is set, keeping up to nogoodCapacity nogoods.
+    //Backjumping needs forward checking alone and only applies to solve
+    public BacktrackEngine(Propagation propagation, RulePropagator rules, SearchOrder order, boolean backjumping,
+                           int nogoodCapacity) {
+        check(propagation, rules, backjumping, nogoodCapacity);
+        this.propagation = propagation;
+        this.rules = rules;
+        this.order = order;
+        this.backjumping = backjumping;
+        this.nogoodCapacity = nogoodCapacity;
+    }
+
+    //Throw IllegalArgumentException if the constructor would refuse the options
+    public static void check(Propagation propagation, RulePropagator rules, boolean backjumping, int nogoodCapacity) {
+        if(backjumping && (propagation != Propagation.FORWARD_CHECKING || rules != null)) {
+            throw new IllegalArgumentException("Backjumping needs forward checking without rules");
+        }
+        if(nogoodCapacity < 0) {
+            throw new IllegalArgumentException("Nogood capacity must not be negative: " + nogoodCapacity);
+        }
+    }
+
+    @Override
+    public boolean solve(Board board) {
+        configure(board);
+        board.conflictSets = backjumping ? new ConflictSets(nogoodCapacity) : null;
+        return Program.search(board);
+    }
+
+    @Override
+    public int count(Board board, int limit) {
+        configure(board);
+        board.conflictSets = null;
+        return Program.countSolutions(board, limit);
+    }
+
+    //Helper function for solve and count
+    private void configure(Board board) {
+        board.propagation = propagation;
+        board.rules = rules;
+        board.order = order;
+        board.random = SearchOrder.randomState(order.seed);
+    }
+}
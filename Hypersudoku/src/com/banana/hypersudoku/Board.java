@@ -0,0 +1,308 @@
+package com.banana.hypersudoku;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Board is the flat game board used by the search. Cell i sits at row i / 9 and column i % 9 (see Topology), and a
+//value of 0 means the cell is blank. Everything is allocated when the board is created, so a search over it does not
+//allocate.
+class Board {
+
+    public static final int SIZE = Topology.SIZE;
+
+    //The value of each cell, 0 if blank
+    public final byte[] cells = new byte[SIZE];
+
+    //The domain of each cell as a bitmask, see Domain. Only meaningful while the cell is blank
+    public final int[] domains = new int[SIZE];
+
+    //Number of blank cells
+    public int unassigned;
+
+    //The first solution found when counting solutions, see Engine.count
+    public final byte[] solution = new byte[SIZE];
+
+    //Marks a trail entry that records an assignment made by propagation rather than a domain change
+    public static final int ASSIGNED = -1;
+
+    //Undo log of the changes made during the search: the changed cell and the domain it had before, or ASSIGNED. Along
+    //one branch a cell can lose at most DOMAIN values and be assigned once, which bounds the log
+    public final int[] trailCells = new int[SIZE * (Program.DOMAIN + 1)];
+    public final int[] trailDomains = new int[SIZE * (Program.DOMAIN + 1)];
+    public int trailSize;
+
+    //The inference used by the search on this board
+    public Propagation propagation = Propagation.FORWARD_CHECKING;
+
+    //Rules run to fixpoint before the search and after each inference, null for none
+    public RulePropagator rules;
+
+    //Set by another thread to make the search on this board give up, null if it cannot be stopped
+    public AtomicBoolean stop;
+
+    //Counters of the search on this board, null to not collect them
+    public SearchStats stats;
+
+    //How the search on this board orders its choices, and the state that goes with it: the wipeouts counted in each
+    //unit for dom/wdeg, the state of the random tie-breaking and the nodes left before the next restart
+    public SearchOrder order = SearchOrder.DEFAULT;
+    public final int[] conflicts = new int[Topology.UNIT_COUNT];
+    public long random;
+    public long nodesLeft = Long.MAX_VALUE;
+
+    //State of conflict-directed backjumping, null for chronological backtracking
+    public ConflictSets conflictSets;
+
+    //Work queue reused by every AC-3 run on this board
+    public final ArcQueue arcQueue = new ArcQueue();
+
+    //Scratch space reused by every least-constraining-value ordering on this board, see Heuristic.orderValues
+    public final long[] valueKeys = new long[Program.DOMAIN];
+
+    //Values already assigned in each unit of Topology, as a bitmask. Kept up to date by assign and unassign so
+    //consistency checks never rescan the units
+    public final int[] used = new int[Topology.UNIT_COUNT];
+
+    //Blank cells grouped by domain size, for MRV: one doubly linked list per size through next and prev, starting at
+    //bucketHead[size], with NONE ending a list. Every change to a cell's value or to the domain of a blank cell goes
+    //through assign, unassign or setDomain, which keep the lists up to date
+    public static final int NONE = -1;
+    public final int[] bucketHead = new int[Program.DOMAIN + 1];
+    public final int[] next = new int[SIZE];
+    private final int[] prev = new int[SIZE];
+
+    //Number of blank peers of each cell, for the degree heuristic. Kept up to date by assign and unassign
+    public final int[] degree = new int[SIZE];
+
+    //Every cell starts blank with an empty domain
+    private Board() {
+        Arrays.fill(bucketHead, NONE);
+        for(int cell = SIZE - 1; cell >= 0; cell--) {
+            link(cell);
+            degree[cell] = Topology.PEERS[cell].length;
+        }
+    }
+
+    //Build a board from a game board. Blank cells start with a full domain, every cell starts blank and the given
+    //values are then assigned
+    public static Board fromAssignment(Integer[][] assignment) {
+        Board board = new Board();
+        board.unassigned = SIZE;
+        for(int row = 0; row < Program.ROW; row++) {
+            for(int col = 0; col < Program.COL; col++) {
+                int cell = Topology.index(row, col);
+                if(assignment[row][col] == 0) {
+                    board.setDomain(cell, Domain.FULL);
+                }
+                else {
+                    board.assign(cell, assignment[row][col]);
+                }
+            }
+        }
+        return board;
+    }
+
+    //Return an independent copy of the board for another thread, with an empty trail and its own rule and search
+    //counters
+    public Board copy() {
+        Board board = new Board();
+        System.arraycopy(cells, 0, board.cells, 0, SIZE);
+        System.arraycopy(domains, 0, board.domains, 0, SIZE);
+        System.arraycopy(used, 0, board.used, 0, used.length);
+        System.arraycopy(bucketHead, 0, board.bucketHead, 0, bucketHead.length);
+        System.arraycopy(next, 0, board.next, 0, SIZE);
+        System.arraycopy(prev, 0, board.prev, 0, SIZE);
+        System.arraycopy(degree, 0, board.degree, 0, SIZE);
+        board.unassigned = unassigned;
+        board.propagation = propagation;
+        board.rules = rules == null ? null : rules.fork();
+        board.stop = stop;
+        board.stats = stats == null ? null : stats.fork();
+        board.order = order;
+        System.arraycopy(conflicts, 0, board.conflicts, 0, conflicts.length);
+        board.random = random;
+        return board;
+    }
+
+    //Build a board from 81 cell values in row order, 0 for a blank cell. Blank cells start with a full domain
+    public static Board fromCells(byte[] values) {
+        Board board = new Board();
+        board.unassigned = SIZE;
+        for(int cell = 0; cell < SIZE; cell++) {
+            if(values[cell] == 0) {
+                board.setDomain(cell, Domain.FULL);
+            }
+            else {
+                board.assign(cell, values[cell]);
+            }
+        }
+        return board;
+    }
+
+    //Build a board from a game board and its variableArray, keeping the domains already reduced on the variables
+    public static Board fromVariables(Integer[][] assignment, Pos[][] variableArray) {
+        Board board = fromAssignment(assignment);
+        for(int row = 0; row < Program.ROW; row++) {
+            for(int col = 0; col < Program.COL; col++) {
+                if(!variableArray[row][col].isAssigned) {
+                    board.setDomain(Topology.index(row, col), variableArray[row][col].domain);
+                }
+            }
+        }
+        return board;
+    }
+
+    //Assign a value to a blank cell and mark it as used in the cell's units
+    public void assign(int cell, int value) {
+        unlink(cell);
+        cells[cell] = (byte) value;
+        unassigned--;
+        for(int unit : Topology.CELL_UNITS[cell]) {
+            used[unit] |= Domain.bit(value);
+        }
+        for(int peer : Topology.PEERS[cell]) {
+            degree[peer]--;
+        }
+    }
+
+    //Clear an assigned cell and release its value in the cell's units. The domain is left untouched by assign, so
+    //there is nothing to restore
+    public void unassign(int cell) {
+        int value = cells[cell];
+        cells[cell] = 0;
+        unassigned++;
+        for(int unit : Topology.CELL_UNITS[cell]) {
+            used[unit] &= ~Domain.bit(value);
+        }
+        for(int peer : Topology.PEERS[cell]) {
+            degree[peer]++;
+        }
+        link(cell);
+    }
+
+    //Assign a value and log it on the trail, so undoTo clears the cell again. Used by propagation, the search itself
+    //undoes its own assignments
+    public void assignOnTrail(int cell, int value) {
+        trailCells[trailSize] = cell;
+        trailDomains[trailSize] = ASSIGNED;
+        trailSize++;
+        assign(cell, value);
+    }
+
+    //Remove values from a cell's domain, logging the old domain on the trail if anything changes. Return false if the
+    //domain is wiped out
+    public boolean prune(int cell, int values) {
+        int domain = domains[cell];
+        if((domain & values) == Domain.EMPTY) {
+            return true;
+        }
+        trailCells[trailSize] = cell;
+        trailDomains[trailSize] = domain;
+        trailSize++;
+        if(conflictSets != null) {
+            for(int bits = domain & values; bits != Domain.EMPTY; bits &= bits - 1) {
+                conflictSets.pruned(cell, Domain.lowest(bits));
+            }
+        }
+        setDomain(cell, domain & ~values);
+        if(stats != null) {
+            stats.prunes++;
+        }
+        if(domains[cell] == Domain.EMPTY) {
+            if(conflictSets != null) {
+                conflictSets.wipedOut = cell;
+            }
+            if(order.variables == SearchOrder.Variables.DOM_WDEG) {
+                for(int unit : Topology.CELL_UNITS[cell]) {
+                    conflicts[unit]++;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    //Restore every domain changed and clear every cell assigned on the trail since it had the given size
+    public void undoTo(int mark) {
+        while(trailSize > mark) {
+            trailSize--;
+            if(trailDomains[trailSize] == ASSIGNED) {
+                unassign(trailCells[trailSize]);
+            }
+            else {
+                setDomain(trailCells[trailSize], trailDomains[trailSize]);
+            }
+        }
+    }
+
+    //Change the domain of a cell, moving it to the bucket of its new size if it is blank
+    private void setDomain(int cell, int domain) {
+        if(cells[cell] == 0) {
+            unlink(cell);
+            domains[cell] = domain;
+            link(cell);
+        }
+        else {
+            domains[cell] = domain;
+        }
+    }
+
+    //Put a blank cell at the front of the bucket of its domain size
+    private void link(int cell) {
+        int size = Domain.size(domains[cell]);
+        int head = bucketHead[size];
+        next[cell] = head;
+        prev[cell] = NONE;
+        if(head != NONE) {
+            prev[head] = cell;
+        }
+        bucketHead[size] = cell;
+    }
+
+    //Take a blank cell out of the bucket of its domain size
+    private void unlink(int cell) {
+        if(prev[cell] == NONE) {
+            bucketHead[Domain.size(domains[cell])] = next[cell];
+        }
+        else {
+            next[prev[cell]] = next[cell];
+        }
+        if(next[cell] != NONE) {
+            prev[next[cell]] = prev[cell];
+        }
+    }
+
+    //Return the values already assigned to any neighbor of a cell
+    public int usedValues(int cell) {
+        int values = Domain.EMPTY;
+        for(int unit : Topology.CELL_UNITS[cell]) {
+            values |= used[unit];
+        }
+        return values;
+    }
+
+    //Copy the board back into a game board and its variableArray
+    public void toVariables(Integer[][] assignment, Pos[][] variableArray) {
+        copyTo(cells, assignment, variableArray);
+    }
+
+    //Copy the first solution found by Engine.count into a game board and its variableArray
+    public void solutionToVariables(Integer[][] assignment, Pos[][] variableArray) {
+        copyTo(solution, assignment, variableArray);
+    }
+
+    //Helper function for the two above
+    private static void copyTo(byte[] values, Integer[][] assignment, Pos[][] variableArray) {
+        for(int row = 0; row < Program.ROW; row++) {
+            for(int col = 0; col < Program.COL; col++) {
+                int value = values[Topology.index(row, col)];
+                assignment[row][col] = value;
+                if(value != 0) {
+                    variableArray[row][col].isAssigned = true;
+                    variableArray[row][col].value = value;
+                    variableArray[row][col].domain = Domain.EMPTY;
+                }
+            }
+        }
+    }
+}
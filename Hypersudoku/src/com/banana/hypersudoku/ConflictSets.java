@@ -0,0 +1,212 @@
+package com.banana.hypersudoku;
+
+import java.util.Arrays;
+
+//ConflictSets is the state of conflict-directed backjumping with forward checking (FC-CBJ, see
+//Program.backJumpAlgorithm) on one board. Each cell the search assigns gets a level, 1 for the first. For every level
+//it keeps the conflict set: the earlier levels whose assignments took part in ruling out a value there. For every value
+//pruned from a domain it keeps the level that pruned it, so a wiped-out domain can tell which levels wiped it out;
+//level 0 stands for the given values, which are never undone. Sets of levels are bitmasks over two longs, enough for
+//81 levels.
+//
+//When a level runs out of values, its conflict set is a nogood: the assignments at those levels cannot all hold in any
+//solution. Nogoods of at most MAX_NOGOOD_SIZE assignments are kept, up to a fixed capacity, and an assignment that
+//would complete one is refused without searching below it. Nogoods hold for the board as given, so they are kept
+//across restarts.
+class ConflictSets {
+
+    //Returned by the search when it found a solution, and when it was stopped or ran out of nodes
+    public static final int SOLVED = Integer.MAX_VALUE;
+    public static final int ABORTED = -1;
+
+    //Nogoods with more assignments than this are not worth looking up
+    public static final int MAX_NOGOOD_SIZE = 4;
+
+    //Values of a cell in the flat tables below, value 0 unused
+    private static final int VALUES = Program.DOMAIN + 1;
+
+    //Current level, and the cell assigned at each level
+    private int level;
+    private final int[] levelCell = new int[Board.SIZE + 1];
+
+    //Cell -> the level it was assigned at, only meaningful while the search has it assigned
+    private final int[] levelOf = new int[Board.SIZE];
+
+    //Level -> its conflict set, split over two longs
+    private final long[] setLow = new long[Board.SIZE + 1];
+    private final long[] setHigh = new long[Board.SIZE + 1];
+
+    //Cell and value -> the level that pruned the value from the cell's domain, only meaningful while it is pruned
+    private final int[] prunedAt = new int[Board.SIZE * VALUES];
+
+    //The last cell whose domain was wiped out
+    public int wipedOut = Board.NONE;
+
+    //Nogood store. Nogood i has sizes[i] literals (cell * VALUES + value) from literals[i * MAX_NOGOOD_SIZE], and each
+    //literal heads a list of the nogoods containing it: entry i * MAX_NOGOOD_SIZE + position, linked through nextEntry
+    public final int capacity;
+    private int count;
+    private final int[] literals;
+    private final int[] sizes;
+    private final int[] nextEntry;
+    private final int[] literalHead = new int[Board.SIZE * VALUES];
+
+    //Keep up to capacity nogoods, 0 for backjumping alone
+    public ConflictSets(int capacity) {
+        this.capacity = capacity;
+        this.literals = new int[capacity * MAX_NOGOOD_SIZE];
+        this.sizes = new int[capacity];
+        this.nextEntry = new int[capacity * MAX_NOGOOD_SIZE];
+        Arrays.fill(literalHead, Board.NONE);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    //Called by Board.prune for every value it removes
+    public void pruned(int cell, int value) {
+        prunedAt[cell * VALUES + value] = level;
+    }
+
+    //Start a new level for the cell about to be assigned and return it
+    public int push(int cell) {
+        level++;
+        levelCell[level] = cell;
+        levelOf[cell] = level;
+        setLow[level] = 0;
+        setHigh[level] = 0;
+        return level;
+    }
+
+    public void pop() {
+        level--;
+    }
+
+    //value does not fit the cell at the current level: add the levels of the neighbors holding it
+    public void explainInconsistent(Board board, int cell, int value) {
+        for(int neighbor : Topology.PEERS[cell]) {
+            if(board.cells[neighbor] == value) {
+                add(level, levelOf(board, neighbor));
+            }
+        }
+    }
+
+    //The assignment at the current level wiped out a domain: add the levels that pruned it
+    public void explainWipeout() {
+        addPrunedAt(level, wipedOut, Domain.FULL);
+    }
+
+    //The current level ran out of values for its cell. Add the levels that pruned the cell's domain to the conflict
+    //set, keep it as a nogood if it is small enough, move it to the deepest level in it and return that level, 0 if
+    //the set is empty and the board has no solution
+    public int exhausted(Board board, int cell, SearchStats stats) {
+        addPrunedAt(level, cell, Domain.FULL & ~board.domains[cell]);
+        record(board, stats);
+        int target = deepest(level);
+        if(target > 0) {
+            setLow[target] |= setLow[level];
+            setHigh[target] |= setHigh[level];
+            remove(target, target);
+            if(stats != null) {
+                stats.backjumps += level - 1 - target;
+            }
+        }
+        return target;
+    }
+
+    //Return true if {cell = value} would complete a stored nogood, adding the levels of its other assignments to the
+    //conflict set of the current level
+    public boolean violatesNogood(Board board, int cell, int value) {
+        for(int entry = literalHead[cell * VALUES + value]; entry != Board.NONE; entry = nextEntry[entry]) {
+            int nogood = entry / MAX_NOGOOD_SIZE;
+            int start = nogood * MAX_NOGOOD_SIZE;
+            boolean holds = true;
+            for(int i = start; i < start + sizes[nogood] && holds; i++) {
+                int other = literals[i] / VALUES;
+                holds = other == cell || board.cells[other] == literals[i] % VALUES;
+            }
+            if(holds) {
+                for(int i = start; i < start + sizes[nogood]; i++) {
+                    int other = literals[i] / VALUES;
+                    if(other != cell) {
+                        add(level, levelOf(board, other));
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Helper function for exhausted. Store the conflict set of the current level as a nogood
+    private void record(Board board, SearchStats stats) {
+        int size = Long.bitCount(setLow[level]) + Long.bitCount(setHigh[level]);
+        if(size == 0 || size > MAX_NOGOOD_SIZE || count == capacity) {
+            return;
+        }
+        int start = count * MAX_NOGOOD_SIZE;
+        int fill = start;
+        for(long bits = setLow[level]; bits != 0; bits &= bits - 1) {
+            fill = addLiteral(board, levelCell[Long.numberOfTrailingZeros(bits)], fill);
+        }
+        for(long bits = setHigh[level]; bits != 0; bits &= bits - 1) {
+            fill = addLiteral(board, levelCell[64 + Long.numberOfTrailingZeros(bits)], fill);
+        }
+        sizes[count] = fill - start;
+        count++;
+        if(stats != null) {
+            stats.nogoods++;
+        }
+    }
+
+    //Helper function for record
+    private int addLiteral(Board board, int cell, int entry) {
+        int literal = cell * VALUES + board.cells[cell];
+        literals[entry] = literal;
+        nextEntry[entry] = literalHead[literal];
+        literalHead[literal] = entry;
+        return entry + 1;
+    }
+
+    //Return the level a cell was assigned at, 0 for a given value
+    private int levelOf(Board board, int cell) {
+        int cellLevel = levelOf[cell];
+        return cellLevel > 0 && cellLevel <= level && levelCell[cellLevel] == cell ? cellLevel : 0;
+    }
+
+    private void addPrunedAt(int target, int cell, int values) {
+        for(int bits = values; bits != Domain.EMPTY; bits &= bits - 1) {
+            add(target, prunedAt[cell * VALUES + Domain.lowest(bits)]);
+        }
+    }
+
+    //Add a level other than 0 and target itself to the conflict set of target
+    private void add(int target, int member) {
+        if(member > 0 && member != target) {
+            if(member < 64) {
+                setLow[target] |= 1L << member;
+            }
+            else {
+                setHigh[target] |= 1L << (member - 64);
+            }
+        }
+    }
+
+    private void remove(int target, int member) {
+        if(member < 64) {
+            setLow[target] &= ~(1L << member);
+        }
+        else {
+            setHigh[target] &= ~(1L << (member - 64));
+        }
+    }
+
+    //Return the deepest level in a conflict set, 0 if it is empty
+    private int deepest(int target) {
+        if(setHigh[target] != 0) {
+            return 127 - Long.numberOfLeadingZeros(setHigh[target]);
+        }
+        return setLow[target] == 0 ? 0 : 63 - Long.numberOfLeadingZeros(setLow[target]);
+    }
+}
@@ -0,0 +1,241 @@
+package com.banana.hypersudoku;
+
+//The class acts like a toolbox, provides constraint-checking functions
+class Constraint {
+
+    //Check and update all variables' domains. Return false if any variable's domain is empty
+    public static boolean forwardChecking(Integer[][] assignment, Pos[][] variableArray) {
+        //Check all rows and update their domains
+        for(int row = 0; row < Program.ROW; row++) {
+            if(!updateRow(row, assignment, variableArray)) {
+                return false;
+            }
+
+        }
+        //Check all columns and update their domains
+        for(int col = 0; col < Program.COL; col++) {
+            if(!updateCol(col, assignment, variableArray)) {
+                return false;
+            }
+        }
+        //Check all non-overlapping area and update their domains
+        for(int area = 0; area < 9; area += 3) {
+            for(int j = 0; j < 9; j += 3) {
+                if(!updateArea(area, j, assignment, variableArray)) {
+                    return false;
+                }
+            }
+        }
+        //Check all overlapping area and update their domains
+        for(int area = 0; area < 4; area++) {
+            // #1
+            if(!updateArea(1,1, assignment, variableArray)) {
+                return false;
+            }
+            // #2
+            if(!updateArea(1,5, assignment, variableArray)) {
+                return false;
+            }
+            // #3
+            if(!updateArea(5,1, assignment, variableArray)) {
+                return false;
+            }
+            // #4
+            if(!updateArea(5,5, assignment, variableArray)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Forward checking on the flat board: remove the values used in each unit from the domains of its blank cells.
+    //Return false if a unit has the same value given twice or any blank cell's domain is empty
+    public static boolean forwardChecking(Board board) {
+        for(int unit = 0; unit < Topology.UNIT_COUNT; unit++) {
+            int givens = 0;
+            for(int cell : Topology.UNITS[unit]) {
+                if(board.cells[cell] != 0) {
+                    givens++;
+                }
+            }
+            if(givens != Domain.size(board.used[unit])) {
+                return false;
+            }
+            for(int cell : Topology.UNITS[unit]) {
+                if(board.cells[cell] == 0 && !board.prune(cell, board.used[unit])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    //Check if game board is valid by checking if all constraints are satisfied, i.e. no unit of Topology has the same
+    //value assigned twice. Blank cells are ignored
+    public static boolean isValid(Integer[][] assignment) {
+        if(assignment == null) {
+            System.out.println("isValid: assignment is null");
+            return false;
+        }
+        for(int[] unit : Topology.UNITS) {
+            if(!isValidUnit(unit, assignment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //A helper function for isValid(), check validity for a single unit
+    public static boolean isValidUnit(int[] unit, Integer[][] assignment) {
+        int seen = Domain.EMPTY;
+        for(int cell : unit) {
+            int value = assignment[Topology.ROW_OF[cell]][Topology.COL_OF[cell]];
+            if(value != 0) {
+                if(Domain.contains(seen, value)) {
+                    return false;
+                }
+                seen |= Domain.bit(value);
+            }
+        }
+        return true;
+    }
+
+    //Check if an assignment is consistent by checking if any neighbor of this variable already has the same value assigned
+    public static boolean isConsistent(Pos variable, Integer value, Integer[][] assignment) {
+        for(int neighbor : Topology.PEERS[Topology.index(variable.row, variable.col)]) {
+            if(assignment[Topology.ROW_OF[neighbor]][Topology.COL_OF[neighbor]].equals(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Check if an assignment {cell = value} on the flat board is consistent, using the used values the board keeps
+    //for every unit instead of scanning the neighbors
+    public static boolean isConsistent(Board board, int cell, int value) {
+        if(board.stats != null) {
+            board.stats.consistencyChecks++;
+        }
+        return (board.usedValues(cell) & Domain.bit(value)) == Domain.EMPTY;
+    }
+
+    //The inference step of the backtrack algorithm after {cell = value}, as selected by the board's propagation. With
+    //forward checking, remove the value from the domains of the cell's unassigned neighbors and return false as soon
+    //as one of them is wiped out. With AC3, propagate from the cell until the board is arc consistent again. Every
+    //change is logged on the board's trail so the caller can undo it
+    public static boolean inference(Board board, int cell, int value) {
+        if(board.propagation == Propagation.AC3) {
+            board.arcQueue.add(cell);
+            return propagateArcs(board);
+        }
+        for(int neighbor : Topology.PEERS[cell]) {
+            if(board.cells[neighbor] == 0 && !board.prune(neighbor, Domain.bit(value))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Make the whole board arc consistent (AC-3), starting from every cell. Return false if a domain is wiped out
+    public static boolean arcConsistency(Board board) {
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            board.arcQueue.add(cell);
+        }
+        return propagateArcs(board);
+    }
+
+    //Helper function for AC-3. Revise the arcs of every queued cell until the queue is empty: a cell down to a single
+    //value removes it from its unassigned neighbors, which are queued in turn once they are down to a single value.
+    //Return false if a domain is wiped out
+    public static boolean propagateArcs(Board board) {
+        ArcQueue queue = board.arcQueue;
+        while(!queue.isEmpty()) {
+            int cell = queue.poll();
+            int values = board.cells[cell] != 0 ? Domain.bit(board.cells[cell]) : board.domains[cell];
+            if(Domain.size(values) == 1) {
+                for(int neighbor : Topology.PEERS[cell]) {
+                    if(board.cells[neighbor] == 0 && (board.domains[neighbor] & values) != Domain.EMPTY) {
+                        if(!board.prune(neighbor, values)) {
+                            queue.clear();
+                            return false;
+                        }
+                        if(Domain.size(board.domains[neighbor]) == 1) {
+                            queue.add(neighbor);
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    //Helper function for forward checking. Check and update variables's domains on a single row, and return false if
+    //a variable's domain is empty
+    public static boolean updateRow(int rowNumber, Integer[][] assignment, Pos[][] variableArray) {
+        int assignedValues = Domain.EMPTY;
+        for(int col = 0; col < Program.COL; col++) {
+            if(assignment[rowNumber][col] != 0) {
+                assignedValues |= Domain.bit(assignment[rowNumber][col]);
+            }
+        }
+        if(assignedValues != Domain.EMPTY) {
+            for(int col = 0; col < Program.COL; col++) {
+                if(!variableArray[rowNumber][col].isAssigned) {
+                    variableArray[rowNumber][col].domain &= ~assignedValues;
+                    if(variableArray[rowNumber][col].domain == Domain.EMPTY) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    //Helper function for forward checking. Check and update variables's domains on a single column, and return false if
+    //a variable's domain is empty
+    public static boolean updateCol(int colNumber, Integer[][] assignment, Pos[][] variableArray) {
+        int assignedValues = Domain.EMPTY;
+        for(int row = 0; row < Program.ROW; row++) {
+            if(assignment[row][colNumber] != 0) {
+                assignedValues |= Domain.bit(assignment[row][colNumber]);
+            }
+        }
+        if(assignedValues != Domain.EMPTY) {
+            for(int row = 0; row < Program.ROW; row++) {
+                if(!variableArray[row][colNumber].isAssigned) {
+                    variableArray[row][colNumber].domain &= ~assignedValues;
+                    if(variableArray[row][colNumber].domain == Domain.EMPTY) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    //Helper function for forward checking. Check and update variables's domains in an area, and return false if
+    //a variable's domain is empty
+    public static boolean updateArea(int topLeftRow, int topLeftCol, Integer[][] assignment, Pos[][] variableArray) {
+        int assignedValues = Domain.EMPTY;
+        for(int row = topLeftRow; row < topLeftRow + Program.ROW/3; row++) {
+            for(int col = topLeftCol; col < topLeftCol + Program.COL/3; col++) {
+                if(assignment[row][col] != 0) {
+                    assignedValues |= Domain.bit(assignment[row][col]);
+                }
+            }
+        }
+        if(assignedValues != Domain.EMPTY) {
+            for(int row = topLeftRow; row < topLeftRow + Program.ROW/3; row++) {
+                for(int col = topLeftCol; col < topLeftCol + Program.COL/3; col++) {
+                    if(!variableArray[row][col].isAssigned) {
+                        variableArray[row][col].domain &= ~assignedValues;
+                        if(variableArray[row][col].domain == Domain.EMPTY) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
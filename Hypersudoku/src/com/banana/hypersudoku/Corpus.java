@@ -0,0 +1,90 @@
+package com.banana.hypersudoku;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+//Corpus reads a large file of boards in the input file format (81 digits separated by whitespace per board, boards
+//simply following each other) through memory-mapped chunks. Digits are decoded straight from the mapped bytes into
+//a byte[81] board, so no String or Integer is created per board. Each value is a single digit, so a cell is one byte.
+//
+//split() cuts the file into chunks that start at a board, so several threads can each map and read their own chunk.
+//A single mapping is limited to 2 GB, which bounds the size of a chunk but not of the file.
+class Corpus {
+
+    //Largest chunk split() aims for
+    public static final long MAX_CHUNK = 1L << 30;
+
+    //Size of the windows the split pass maps one after the other
+    private static final int SCAN_WINDOW = 64 << 20;
+
+    //Return chunk boundaries as byte offsets: chunk i is [offsets[i], offsets[i + 1]). Chunks start at the first digit of
+    //a board and hold whole boards, and there are about count of them. This has to look at every byte once, because
+    //only the number of digits before an offset tells where a board starts
+    public static long[] split(FileChannel channel, int count) throws IOException {
+        long size = channel.size();
+        long target = Math.max(1, Math.min(MAX_CHUNK, size / Math.max(count, 1)));
+        List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+        long nextBoundary = target;
+        long digits = 0;
+        for(long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW) {
+            int length = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+            for(int i = 0; i < length; i++) {
+                byte b = window.get(i);
+                if(b >= '0' && b <= '9') {
+                    long offset = windowStart + i;
+                    if(digits % Board.SIZE == 0 && offset >= nextBoundary) {
+                        offsets.add(offset);
+                        nextBoundary = offset + target;
+                    }
+                    digits++;
+                }
+            }
+        }
+        offsets.add(size);
+        long[] result = new long[offsets.size()];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+        }
+        return result;
+    }
+
+    //Reads the boards of one chunk
+    static class ChunkReader {
+
+        private final MappedByteBuffer buffer;
+
+        private final long start;
+
+        public ChunkReader(FileChannel channel, long start, long end) throws IOException {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            this.start = start;
+        }
+
+        //Decode the next board into cells. Return false at the end of the chunk. Throw IOException on a byte that is
+        //neither a digit nor whitespace, or if the chunk ends in the middle of a board
+        public boolean next(byte[] cells) throws IOException {
+            int filled = 0;
+            while(filled < Board.SIZE && buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if(b >= '0' && b <= '9') {
+                    cells[filled++] = (byte) (b - '0');
+                }
+                else if(b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    throw new IOException("Unexpected byte " + b + " at offset " + (start + buffer.position() - 1));
+                }
+            }
+            if(filled == 0) {
+                return false;
+            }
+            if(filled < Board.SIZE) {
+                throw new IOException("Truncated board at the end of the chunk starting at offset " + start);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.banana.hypersudoku;
+
+//DancingLinks solves the board as an exact cover problem with Knuth's Algorithm X. A matrix row is a candidate
+//{cell = value}. The columns, which every solution covers exactly once, are "cell is filled" and "value is in row /
+//column / non-overlapping area / overlapping area". An overlapping area has 9 cells like any other unit, so each value
+//is in it exactly once and its columns are primary too: column selection sees them, which keeps the search from
+//thrashing on sparse boards.
+//
+//The links are int arrays allocated with the engine and rebuilt for every board, so the search does not allocate. An
+//instance must not be shared between threads.
+class DancingLinks implements Engine {
+
+    private static final int FIRST_CELL = 0;
+    private static final int FIRST_ROW = FIRST_CELL + Topology.SIZE;
+    private static final int FIRST_COL = FIRST_ROW + Program.ROW * Program.DOMAIN;
+    private static final int FIRST_AREA = FIRST_COL + Program.COL * Program.DOMAIN;
+    private static final int FIRST_OVERLAP = FIRST_AREA + Program.DOMAIN * Program.DOMAIN;
+    private static final int COLUMNS = FIRST_OVERLAP + Topology.OVERLAP_CORNERS.length * Program.DOMAIN;
+
+    //Node 0 is the root of the header list, nodes 1 to COLUMNS are the column headers
+    private static final int ROOT = 0;
+
+    private static final int MAX_NODES = 1 + COLUMNS + Topology.SIZE * Program.DOMAIN * 5;
+
+    private final int[] left = new int[MAX_NODES];
+    private final int[] right = new int[MAX_NODES];
+    private final int[] up = new int[MAX_NODES];
+    private final int[] down = new int[MAX_NODES];
+
+    //Header node of each node's column
+    private final int[] column = new int[MAX_NODES];
+
+    //Candidate of each node, cell * DOMAIN + value - 1
+    private final int[] candidate = new int[MAX_NODES];
+
+    //Number of nodes under each column header
+    private final int[] size = new int[MAX_NODES];
+
+    private int nodeCount;
+
+    //Candidates chosen on the current branch
+    private final int[] solution = new int[Topology.SIZE];
+
+    private int solutionSize;
+
+    //State of the current count() call
+    private int solutionCount;
+    private int limit;
+    private Board board;
+
+    @Override
+    public boolean solve(Board board) {
+        build(board);
+        if(!search(0)) {
+            return false;
+        }
+        for(int i = 0; i < solutionSize; i++) {
+            int cell = solution[i] / Program.DOMAIN;
+            if(board.cells[cell] == 0) {
+                board.assign(cell, solution[i] % Program.DOMAIN + 1);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int count(Board board, int limit) {
+        build(board);
+        solutionCount = 0;
+        this.limit = limit;
+        this.board = board;
+        countSearch(0);
+        this.board = null;
+        return solutionCount;
+    }
+
+    //Build the matrix for a board. A given cell only gets its own value, a blank cell one row per value left in its
+    //domain
+    private void build(Board board) {
+        left[ROOT] = COLUMNS;
+        right[ROOT] = 1;
+        for(int header = 1; header <= COLUMNS; header++) {
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+            size[header] = 0;
+            left[header] = header - 1;
+            right[header] = header == COLUMNS ? ROOT : header + 1;
+        }
+        nodeCount = COLUMNS + 1;
+
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            int values = board.cells[cell] != 0 ? Domain.bit(board.cells[cell]) : board.domains[cell];
+            for(; values != Domain.EMPTY; values &= values - 1) {
+                int value = Domain.lowest(values);
+                int row = cell * Program.DOMAIN + value - 1;
+                int digit = value - 1;
+                int first = addNode(row, FIRST_CELL + cell, -1);
+                addNode(row, FIRST_ROW + Topology.ROW_OF[cell] * Program.DOMAIN + digit, first);
+                addNode(row, FIRST_COL + Topology.COL_OF[cell] * Program.DOMAIN + digit, first);
+                addNode(row, FIRST_AREA + Topology.AREA_OF[cell] * Program.DOMAIN + digit, first);
+                if(Topology.OVERLAP_OF[cell] != Topology.NO_OVERLAP) {
+                    addNode(row, FIRST_OVERLAP + Topology.OVERLAP_OF[cell] * Program.DOMAIN + digit, first);
+                }
+            }
+        }
+    }
+
+    //Add a node for a candidate under a column, and to the right end of the candidate's row if first is not -1.
+    //Return the new node
+    private int addNode(int row, int col, int first) {
+        int node = nodeCount++;
+        int header = col + 1;
+        column[node] = header;
+        candidate[node] = row;
+        up[node] = up[header];
+        down[node] = header;
+        down[up[header]] = node;
+        up[header] = node;
+        size[header]++;
+        if(first == -1) {
+            left[node] = node;
+            right[node] = node;
+        }
+        else {
+            left[node] = left[first];
+            right[node] = first;
+            right[left[first]] = node;
+            left[first] = node;
+        }
+        return node;
+    }
+
+    //Algorithm X. Pick the column with the fewest rows and try each of its rows
+    private boolean search(int depth) {
+        if(right[ROOT] == ROOT) {
+            solutionSize = depth;
+            return true;
+        }
+        int best = right[ROOT];
+        for(int header = right[best]; header != ROOT; header = right[header]) {
+            if(size[header] < size[best]) {
+                best = header;
+            }
+        }
+        if(size[best] == 0) {
+            return false;
+        }
+        cover(best);
+        for(int row = down[best]; row != best; row = down[row]) {
+            solution[depth] = candidate[row];
+            for(int node = right[row]; node != row; node = right[node]) {
+                cover(column[node]);
+            }
+            if(search(depth + 1)) {
+                return true;
+            }
+            for(int node = left[row]; node != row; node = left[node]) {
+                uncover(column[node]);
+            }
+        }
+        uncover(best);
+        return false;
+    }
+
+    //Algorithm X going through every solution until limit of them are counted. The first one is copied to the board's
+    //solution array. The matrix is left as it was given
+    private void countSearch(int depth) {
+        if(right[ROOT] == ROOT) {
+            if(solutionCount == 0) {
+                System.arraycopy(board.cells, 0, board.solution, 0, Board.SIZE);
+                for(int i = 0; i < depth; i++) {
+                    board.solution[solution[i] / Program.DOMAIN] = (byte) (solution[i] % Program.DOMAIN + 1);
+                }
+            }
+            solutionCount++;
+            return;
+        }
+        int best = right[ROOT];
+        for(int header = right[best]; header != ROOT; header = right[header]) {
+            if(size[header] < size[best]) {
+                best = header;
+            }
+        }
+        if(size[best] == 0) {
+            return;
+        }
+        cover(best);
+        for(int row = down[best]; row != best && solutionCount < limit; row = down[row]) {
+            solution[depth] = candidate[row];
+            for(int node = right[row]; node != row; node = right[node]) {
+                cover(column[node]);
+            }
+            countSearch(depth + 1);
+            for(int node = left[row]; node != row; node = left[node]) {
+                uncover(column[node]);
+            }
+        }
+        uncover(best);
+    }
+
+    //Remove a column from the header list and every row crossing it from the other columns
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for(int row = down[header]; row != header; row = down[row]) {
+            for(int node = right[row]; node != row; node = right[node]) {
+                down[up[node]] = down[node];
+                up[down[node]] = up[node];
+                size[column[node]]--;
+            }
+        }
+    }
+
+    //Undo cover, in exactly the reverse order
+    private void uncover(int header) {
+        for(int row = up[header]; row != header; row = up[row]) {
+            for(int node = left[row]; node != row; node = left[node]) {
+                size[column[node]]++;
+                down[up[node]] = node;
+                up[down[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+}
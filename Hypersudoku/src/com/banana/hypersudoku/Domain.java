@@ -0,0 +1,30 @@
+package com.banana.hypersudoku;
+
+//The class acts like a toolbox, provides bitmask operations on domains. A domain is an int where bit v is set
+//if value v is still possible, so bit 0 is never used.
+class Domain {
+
+    public static final int EMPTY = 0;
+
+    public static final int FULL = ((1 << (Program.DOMAIN + 1)) - 1) & ~1;
+
+    //Return the bit representing a single value
+    public static int bit(int value) {
+        return 1 << value;
+    }
+
+    //Check if value is in the domain
+    public static boolean contains(int domain, int value) {
+        return (domain & bit(value)) != 0;
+    }
+
+    //Return the number of values left in the domain
+    public static int size(int domain) {
+        return Integer.bitCount(domain);
+    }
+
+    //Return the smallest value in the domain. The domain must not be empty
+    public static int lowest(int domain) {
+        return Integer.numberOfTrailingZeros(domain);
+    }
+}
@@ -0,0 +1,76 @@
+package com.banana.hypersudoku;
+
+import java.util.concurrent.ForkJoinPool;
+
+//A way of solving a flat board. Program.executeFromFile runs whichever engine it is given.
+interface Engine {
+
+    //Solve the board in place. Return true and leave the solution on the board if there is one, otherwise return
+    //false with the board as it was given
+    boolean solve(Board board);
+
+    //Count the solutions of the board, stopping as soon as limit of them are found, so a limit of 2 tells a unique
+    //solution from several. The first solution found is copied to the board's solution array. The board is left as it
+    //was given
+    int count(Board board, int limit);
+
+    //Return the engine with the given name: "backtrack", "dlx" or "parallel"
+    static Engine forName(String name) {
+        switch(name) {
+            case "backtrack":
+                return new BacktrackEngine();
+            case "dlx":
+                return new DancingLinks();
+            case "parallel":
+                return new ParallelEngine();
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+
+    //Same as above, with propagation and rules (null for none, see RulePropagator) run after each assignment and the
+    //backtrack algorithm ordering its search by order and, if backjumping is set, jumping back past irrelevant levels
+    //while keeping up to nogoodCapacity nogoods (see ConflictSets). "parallel" takes any propagation and rules but only
+    //SearchOrder.DEFAULT and chronological backtracking, and "dlx", which does not propagate, only the defaults
+    static Engine forName(String name, Propagation propagation, RulePropagator rules, SearchOrder order,
+                          boolean backjumping, int nogoodCapacity) {
+        check(name, propagation, rules, order, backjumping, nogoodCapacity);
+        switch(name) {
+            case "backtrack":
+                return new BacktrackEngine(propagation, rules, order, backjumping, nogoodCapacity);
+            case "dlx":
+                return new DancingLinks();
+            default:
+                return new ParallelEngine(ForkJoinPool.commonPool(), propagation, rules,
+                        ParallelEngine.DEFAULT_SPLIT_DEPTH);
+        }
+    }
+
+    //Throw IllegalArgumentException if forName would refuse the name, without creating an engine
+    static void check(String name) {
+        check(name, Propagation.FORWARD_CHECKING, null, SearchOrder.DEFAULT, false, 0);
+    }
+
+    //Same as above, for the name and the options
+    static void check(String name, Propagation propagation, RulePropagator rules, SearchOrder order,
+                      boolean backjumping, int nogoodCapacity) {
+        boolean defaultSearch = order.isDefault() && !backjumping;
+        switch(name) {
+            case "backtrack":
+                BacktrackEngine.check(propagation, rules, backjumping, nogoodCapacity);
+                break;
+            case "dlx":
+                if(!defaultSearch || propagation != Propagation.FORWARD_CHECKING || rules != null) {
+                    throw new IllegalArgumentException("Engine dlx only runs the default search");
+                }
+                break;
+            case "parallel":
+                if(!defaultSearch) {
+                    throw new IllegalArgumentException("Engine parallel only runs the default search");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+}
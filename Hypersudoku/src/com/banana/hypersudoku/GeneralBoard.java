@@ -0,0 +1,124 @@
+package com.banana.hypersudoku;
+
+import java.util.Arrays;
+
+//GeneralBoard is Board for a board of any Geometry: cell i sits at row i / n and column i % n, a value of 0 means the
+//cell is blank, and domains are long bitmasks with bit v set for value v. Like Board, everything is allocated when the
+//board is created, and changes are logged on a trail so the search can undo them without copying.
+class GeneralBoard {
+
+    public final Geometry geometry;
+
+    //The value of each cell, 0 if blank
+    public final int[] cells;
+
+    //The domain of each cell. Only meaningful while the cell is blank
+    public final long[] domains;
+
+    //Values already assigned in each unit
+    public final long[] used;
+
+    //Number of blank cells
+    public int unassigned;
+
+    //State of the random tie-breaking, 0 for ties to the lowest cell, and the nodes left before the next restart
+    public long random;
+    public long nodesLeft = Long.MAX_VALUE;
+
+    //Undo log: the changed cell, and either the domain it had before or whether it was assigned. Along one branch a
+    //cell can lose at most n values and be assigned once, which bounds the log
+    private final int[] trailCells;
+    private final long[] trailDomains;
+    private final boolean[] trailAssigned;
+    public int trailSize;
+
+    //Build a board from its cell values in row order, 0 for a blank cell. Return null if a unit has the same value
+    //given twice or a value is out of range
+    public static GeneralBoard fromCells(Geometry geometry, int[] values) {
+        GeneralBoard board = new GeneralBoard(geometry);
+        for(int cell = 0; cell < geometry.size; cell++) {
+            int value = values[cell];
+            if(value < 0 || value > geometry.n) {
+                return null;
+            }
+            if(value != 0) {
+                if((board.usedValues(cell) & bit(value)) != 0) {
+                    return null;
+                }
+                board.assign(cell, value);
+            }
+        }
+        return board;
+    }
+
+    private GeneralBoard(Geometry geometry) {
+        this.geometry = geometry;
+        this.cells = new int[geometry.size];
+        this.domains = new long[geometry.size];
+        this.used = new long[geometry.units.length];
+        this.unassigned = geometry.size;
+        Arrays.fill(domains, geometry.full);
+        int trailLength = geometry.size * (geometry.n + 1);
+        this.trailCells = new int[trailLength];
+        this.trailDomains = new long[trailLength];
+        this.trailAssigned = new boolean[trailLength];
+    }
+
+    public static long bit(int value) {
+        return 1L << value;
+    }
+
+    //Return the values already assigned to any neighbor of a cell
+    public long usedValues(int cell) {
+        long values = 0;
+        for(int unit : geometry.cellUnits[cell]) {
+            values |= used[unit];
+        }
+        return values;
+    }
+
+    //Assign a value to a blank cell, logging it on the trail
+    public void assign(int cell, int value) {
+        trailCells[trailSize] = cell;
+        trailAssigned[trailSize] = true;
+        trailSize++;
+        cells[cell] = value;
+        unassigned--;
+        for(int unit : geometry.cellUnits[cell]) {
+            used[unit] |= bit(value);
+        }
+    }
+
+    //Remove values from a cell's domain, logging the old domain if anything changes. Return false if the domain is
+    //wiped out
+    public boolean prune(int cell, long values) {
+        long domain = domains[cell];
+        if((domain & values) == 0) {
+            return true;
+        }
+        trailCells[trailSize] = cell;
+        trailDomains[trailSize] = domain;
+        trailAssigned[trailSize] = false;
+        trailSize++;
+        domains[cell] = domain & ~values;
+        return domains[cell] != 0;
+    }
+
+    //Undo every assignment and domain change logged since the trail had the given size
+    public void undoTo(int mark) {
+        while(trailSize > mark) {
+            trailSize--;
+            int cell = trailCells[trailSize];
+            if(trailAssigned[trailSize]) {
+                for(int unit : geometry.cellUnits[cell]) {
+                    used[unit] &= ~bit(cells[cell]);
+                }
+                cells[cell] = 0;
+                unassigned++;
+            }
+            else {
+                domains[cell] = trailDomains[trailSize];
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.banana.hypersudoku;
+
+//GeneralSearch solves a GeneralBoard with the backtrack algorithm of Program: MRV and then the degree heuristic to
+//select a cell, values in increasing order and forward checking after each assignment. Past 9 x 9, forward checking
+//alone leaves far too much to the search, so naked and hidden singles then run to fixpoint after each inference, the
+//way RulePropagator.standard() does for the main search. Everything here reads the region tables of the board's
+//Geometry, so every variant runs the same code. The larger boards also have a heavy tail: a few early choices that
+//happen to be wrong can hold the search for hours, so it can restart the way SearchOrder does for the main search.
+//
+//This is a smaller engine than the main search, not the main search run off Geometry: Board and every Engine keep the
+//9 x 9 tables of Topology, and int domains that only hold up to 31 values. So there is no AC-3, no rules past singles,
+//no DLX, backjumping, dom/wdeg, LCV or parallel search here, and MRV scans every cell instead of reading domain-size
+//buckets. What both share is in SearchOrder: the random tie-breaking and the Luby restarts.
+class GeneralSearch {
+
+    //Restart unit of Program.executeGeneral unless --restarts gives another: one node per cell, so a run can reach the
+    //bottom of the tree even when propagation does little. Smaller units kept an empty 25 x 25 board from ever solving
+    public static long defaultRestartUnit(Geometry geometry) {
+        return geometry.size;
+    }
+
+    //Solve the board in place. Return true and leave the solution on the board if there is one, otherwise return false
+    //with the board as it was given
+    public static boolean solve(GeneralBoard board) {
+        return solve(board, 0, 0);
+    }
+
+    //Same as above, restarting with Luby node budgets in units of restartUnit and ties between cells broken at random,
+    //seeded by seed, as SearchOrder does for the main search. A restartUnit of 0 searches once with no restarts
+    public static boolean solve(GeneralBoard board, long restartUnit, long seed) {
+        if(restartUnit < 0) {
+            throw new IllegalArgumentException("Restart unit must not be negative: " + restartUnit);
+        }
+        int mark = board.trailSize;
+        if(forwardChecking(board) && propagate(board)
+                && (restartUnit == 0 ? backTrack(board) : restartSearch(board, restartUnit, seed))) {
+            return true;
+        }
+        board.undoTo(mark);
+        return false;
+    }
+
+    //Run the backtrack algorithm with Luby node budgets (see SearchOrder.restart) until one run finds a solution or
+    //searches the whole tree within its allowance, as Program.restartSearch does
+    public static boolean restartSearch(GeneralBoard board, long restartUnit, long seed) {
+        board.random = SearchOrder.randomState(seed);
+        SearchOrder.restart(restartUnit, nodes -> {
+            board.nodesLeft = nodes;
+            backTrack(board);
+            return board.nodesLeft;
+        });
+        board.nodesLeft = Long.MAX_VALUE;
+        board.random = 0;
+        return board.unassigned == 0;
+    }
+
+    //Remove the values used in each unit from the domains of its blank cells. Return false if a domain is wiped out
+    public static boolean forwardChecking(GeneralBoard board) {
+        Geometry geometry = board.geometry;
+        for(int unit = 0; unit < geometry.units.length; unit++) {
+            for(int cell : geometry.units[unit]) {
+                if(board.cells[cell] == 0 && !board.prune(cell, board.used[unit])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    //The backtrack algorithm, undoing every change from the board's trail when a branch fails. Also returns false once
+    //the board runs out of nodes
+    public static boolean backTrack(GeneralBoard board) {
+        if(board.unassigned == 0) {
+            return true;
+        }
+        if(--board.nodesLeft < 0) {
+            return false;
+        }
+        int curr = selectUnassignedVariable(board);
+        for(long values = board.domains[curr]; values != 0 && board.nodesLeft >= 0; values &= values - 1) {
+            int value = Long.numberOfTrailingZeros(values);
+            if((board.usedValues(curr) & GeneralBoard.bit(value)) == 0) {
+                int mark = board.trailSize;
+                board.assign(curr, value);
+                if(inference(board, curr, value) && propagate(board) && backTrack(board)) {
+                    return true;
+                }
+                board.undoTo(mark);
+            }
+        }
+        return false;
+    }
+
+    //Forward checking after {cell = value}: remove the value from the domains of the cell's blank neighbors. Return
+    //false as soon as one of them is wiped out
+    public static boolean inference(GeneralBoard board, int cell, int value) {
+        for(int neighbor : board.geometry.peers[cell]) {
+            if(board.cells[neighbor] == 0 && !board.prune(neighbor, GeneralBoard.bit(value))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Run naked and hidden singles until neither changes anything. Return false on a contradiction
+    public static boolean propagate(GeneralBoard board) {
+        boolean changed = true;
+        while(changed) {
+            int naked = nakedSingles(board);
+            int hidden = naked < 0 ? -1 : hiddenSingles(board);
+            if(hidden < 0) {
+                return false;
+            }
+            changed = naked + hidden > 0;
+        }
+        return true;
+    }
+
+    //Assign every blank cell with a single value left. Return the number of assignments, or -1 on a contradiction
+    private static int nakedSingles(GeneralBoard board) {
+        int changes = 0;
+        for(int cell = 0; cell < board.geometry.size; cell++) {
+            if(board.cells[cell] == 0 && Long.bitCount(board.domains[cell]) == 1) {
+                int value = Long.numberOfTrailingZeros(board.domains[cell]);
+                if((board.usedValues(cell) & GeneralBoard.bit(value)) != 0) {
+                    return -1;
+                }
+                board.assign(cell, value);
+                changes++;
+                if(!inference(board, cell, value)) {
+                    return -1;
+                }
+            }
+        }
+        return changes;
+    }
+
+    //Narrow a cell down to a value that fits no other blank cell of one of its units. Return the number of cells
+    //narrowed, or -1 if a value has no place left in a unit. One pass over a unit finds the values fitting at least
+    //one blank cell and those fitting two or more, so only the cells of hidden singles are looked up afterwards
+    private static int hiddenSingles(GeneralBoard board) {
+        Geometry geometry = board.geometry;
+        int changes = 0;
+        for(int unit = 0; unit < geometry.units.length; unit++) {
+            long once = 0;
+            long twice = 0;
+            for(int cell : geometry.units[unit]) {
+                if(board.cells[cell] == 0) {
+                    twice |= once & board.domains[cell];
+                    once |= board.domains[cell];
+                }
+            }
+            long open = geometry.full & ~board.used[unit];
+            if((open & ~once) != 0) {
+                return -1;
+            }
+            for(long values = open & ~twice; values != 0; values &= values - 1) {
+                long value = Long.lowestOneBit(values);
+                for(int cell : geometry.units[unit]) {
+                    if(board.cells[cell] == 0 && (board.domains[cell] & value) != 0) {
+                        if(board.domains[cell] != value) {
+                            board.prune(cell, board.domains[cell] & ~value);
+                            changes++;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    //MRV first and then the degree heuristic, in a single pass as Heuristic.selectUnassignedVariable(Board). Ties go to
+    //the lowest cell or, while the board has a random state, to a random one. Return -1 if every cell is assigned
+    public static int selectUnassignedVariable(GeneralBoard board) {
+        int best = -1;
+        int minDomainSize = board.geometry.n + 1;
+        int maxUnassignedNeighbor = -1;
+        int ties = 0;
+        for(int cell = 0; cell < board.geometry.size; cell++) {
+            if(board.cells[cell] == 0 && Long.bitCount(board.domains[cell]) <= minDomainSize) {
+                int size = Long.bitCount(board.domains[cell]);
+                int n = 0;
+                for(int neighbor : board.geometry.peers[cell]) {
+                    if(board.cells[neighbor] == 0) {
+                        n++;
+                    }
+                }
+                if(size < minDomainSize || n > maxUnassignedNeighbor) {
+                    best = cell;
+                    minDomainSize = size;
+                    maxUnassignedNeighbor = n;
+                    ties = 1;
+                }
+                else if(n == maxUnassignedNeighbor && board.random != 0 && nextRandom(board, ++ties) == 0) {
+                    best = cell;
+                }
+            }
+        }
+        return best;
+    }
+
+    //Return a random number from 0 to bound - 1 off the board's random state (xorshift), as Heuristic.nextRandom
+    private static int nextRandom(GeneralBoard board, int bound) {
+        board.random = SearchOrder.nextRandomState(board.random);
+        return (int) Long.remainderUnsigned(board.random, bound);
+    }
+}
@@ -0,0 +1,310 @@
+package com.banana.hypersudoku;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+//Geometry is the structure of a puzzle for GeneralBoard: an n x n board with values 1 to n, and a list of regions, each
+//n cells that must all hold different values. A puzzle variant is nothing more than its regions: Hyper Sudoku has the
+//rows, columns, non-overlapping areas and overlapping areas, Sudoku-X the rows, columns, boxes and both diagonals, and
+//jigsaw Sudoku the rows, columns and irregular areas. Topology is the Hyper Sudoku structure fixed at 9 x 9 for the
+//main search. Every table is computed from the regions when the geometry is created and never changes afterwards, so
+//the search only ever reads tables and one geometry can serve many boards.
+class Geometry {
+
+    //Domains are long bitmasks with bit v set for value v, which leaves room for up to 63 values
+    public static final int MAX_N = 63;
+
+    //Largest box size of the presets, whose boards have boxSize * boxSize values
+    public static final int MAX_BOX_SIZE = 7;
+
+    //Largest box size of Hyper Sudoku. GeneralSearch solves empty boards of every preset up to MAX_BOX_SIZE within
+    //seconds, except Hyper Sudoku past 16 x 16: an empty 25 x 25 board did not solve within minutes
+    public static final int MAX_HYPER_BOX_SIZE = 4;
+
+    //Number of rows, columns and values
+    public final int n;
+
+    public final int size;
+
+    //Every value 1 to n as a domain
+    public final long full;
+
+    //Unit -> cells, one unit per region in the order given
+    public final int[][] units;
+
+    //Cell -> the units it belongs to
+    public final int[][] cellUnits;
+
+    //Cell -> every other cell sharing at least one unit with it, each listed once
+    public final int[][] peers;
+
+    //Build the tables for an n x n board with the given regions. Throw IllegalArgumentException if a region does not
+    //have n different cells of the board
+    public Geometry(int n, int[][] regions) {
+        if(n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+        }
+        this.n = n;
+        this.size = n * n;
+        this.full = (n == MAX_N ? -1L : (1L << (n + 1)) - 1) & ~1L;
+
+        units = new int[regions.length][];
+        int[] unitsPerCell = new int[size];
+        for(int unit = 0; unit < regions.length; unit++) {
+            units[unit] = regions[unit].clone();
+            checkRegion(unit);
+            for(int cell : units[unit]) {
+                unitsPerCell[cell]++;
+            }
+        }
+        cellUnits = new int[size][];
+        for(int cell = 0; cell < size; cell++) {
+            cellUnits[cell] = new int[unitsPerCell[cell]];
+            unitsPerCell[cell] = 0;
+        }
+        for(int unit = 0; unit < units.length; unit++) {
+            for(int cell : units[unit]) {
+                cellUnits[cell][unitsPerCell[cell]++] = unit;
+            }
+        }
+
+        peers = new int[size][];
+        boolean[] isPeer = new boolean[size];
+        for(int cell = 0; cell < size; cell++) {
+            int peerCount = 0;
+            for(int unit : cellUnits[cell]) {
+                for(int other : units[unit]) {
+                    if(other != cell && !isPeer[other]) {
+                        isPeer[other] = true;
+                        peerCount++;
+                    }
+                }
+            }
+            peers[cell] = new int[peerCount];
+            int fill = 0;
+            for(int other = 0; other < size; other++) {
+                if(isPeer[other]) {
+                    peers[cell][fill++] = other;
+                    isPeer[other] = false;
+                }
+            }
+        }
+    }
+
+    //Helper function for the constructor
+    private void checkRegion(int unit) {
+        if(units[unit].length != n) {
+            throw new IllegalArgumentException("Region " + unit + " has " + units[unit].length + " cells, not " + n);
+        }
+        boolean[] seen = new boolean[size];
+        for(int cell : units[unit]) {
+            if(cell < 0 || cell >= size || seen[cell]) {
+                throw new IllegalArgumentException("Region " + unit + " has a bad or repeated cell: " + cell);
+            }
+            seen[cell] = true;
+        }
+    }
+
+    //Hyper Sudoku: rows, columns, non-overlapping areas and overlapping areas. The overlapping areas are
+    //boxSize x boxSize squares one cell apart, starting one cell in from the edges: on 9 x 9 these are the four at
+    //(1, 1), (1, 5), (5, 1) and (5, 5), on 16 x 16 nine and on 25 x 25 sixteen
+    public static Geometry hyper(int boxSize) {
+        return new Geometry(boxSize * boxSize, hyperRegions(boxSize).toArray(new int[0][]));
+    }
+
+    //Hyper Sudoku as above, with the 2 * boxSize - 1 regions the others imply added. The overlapping areas leave
+    //boxSize rows and boxSize columns uncovered, one every boxSize + 1 starting at 0. The boxSize rows crossing a row
+    //of overlapping areas hold each value boxSize times and those areas boxSize - 1 times, so the cells of those rows
+    //in the uncovered columns hold each value once; the same goes for columns, and for the cells where the uncovered
+    //rows and columns cross. The solutions are the same, but forward checking and hidden singles see far more, which
+    //takes the search on an empty 16 x 16 board from seconds to milliseconds. Not used by Topology, whose unit
+    //numbering the main search relies on
+    public static Geometry hyperWithImplied(int boxSize) {
+        List<int[]> regions = hyperRegions(boxSize);
+        int n = boxSize * boxSize;
+        int[] uncovered = new int[boxSize];
+        for(int i = 0; i < boxSize; i++) {
+            uncovered[i] = i * (boxSize + 1);
+        }
+        for(int top = 1; top + boxSize < n; top += boxSize + 1) {
+            int[] across = new int[n];
+            int[] down = new int[n];
+            for(int i = 0; i < n; i++) {
+                across[i] = (top + i / boxSize) * n + uncovered[i % boxSize];
+                down[i] = uncovered[i % boxSize] * n + top + i / boxSize;
+            }
+            regions.add(across);
+            regions.add(down);
+        }
+        int[] corners = new int[n];
+        for(int i = 0; i < n; i++) {
+            corners[i] = uncovered[i / boxSize] * n + uncovered[i % boxSize];
+        }
+        regions.add(corners);
+        return new Geometry(n, regions.toArray(new int[0][]));
+    }
+
+    //Helper function for hyper and hyperWithImplied
+    private static List<int[]> hyperRegions(int boxSize) {
+        if(boxSize > MAX_HYPER_BOX_SIZE) {
+            throw new IllegalArgumentException("Hyper Sudoku box size must be at most " + MAX_HYPER_BOX_SIZE + ": "
+                    + boxSize);
+        }
+        List<int[]> regions = lines(checkBoxSize(boxSize));
+        regions.addAll(boxes(boxSize));
+        int n = boxSize * boxSize;
+        for(int top = 1; top + boxSize < n; top += boxSize + 1) {
+            for(int left = 1; left + boxSize < n; left += boxSize + 1) {
+                regions.add(square(n, top, left, boxSize));
+            }
+        }
+        return regions;
+    }
+
+    //Plain Sudoku: rows, columns and boxes
+    public static Geometry plain(int boxSize) {
+        List<int[]> regions = lines(checkBoxSize(boxSize));
+        regions.addAll(boxes(boxSize));
+        return new Geometry(boxSize * boxSize, regions.toArray(new int[0][]));
+    }
+
+    //Sudoku-X: rows, columns, boxes and the two main diagonals
+    public static Geometry diagonal(int boxSize) {
+        List<int[]> regions = lines(checkBoxSize(boxSize));
+        regions.addAll(boxes(boxSize));
+        int n = boxSize * boxSize;
+        int[] down = new int[n];
+        int[] up = new int[n];
+        for(int i = 0; i < n; i++) {
+            down[i] = i * n + i;
+            up[i] = i * n + n - 1 - i;
+        }
+        regions.add(down);
+        regions.add(up);
+        return new Geometry(n, regions.toArray(new int[0][]));
+    }
+
+    //Jigsaw Sudoku: rows, columns and the areas given by areaOf, which holds the area of each cell in row order,
+    //numbered 1 to n. Throw IllegalArgumentException if an area does not have exactly n cells
+    public static Geometry jigsaw(int n, int[] areaOf) {
+        if(areaOf.length != n * n) {
+            throw new IllegalArgumentException("Expected " + n * n + " cells, got " + areaOf.length);
+        }
+        List<int[]> regions = lines(n);
+        int[][] areas = new int[n][n];
+        int[] fill = new int[n];
+        for(int cell = 0; cell < areaOf.length; cell++) {
+            int area = areaOf[cell] - 1;
+            if(area < 0 || area >= n || fill[area] == n) {
+                throw new IllegalArgumentException("Bad area " + areaOf[cell] + " at cell " + cell);
+            }
+            areas[area][fill[area]++] = cell;
+        }
+        for(int[] area : areas) {
+            regions.add(area);
+        }
+        return new Geometry(n, regions.toArray(new int[0][]));
+    }
+
+    //Build the geometry of a variant by name: hyper (with its implied regions), plain or x for the presets with the
+    //given box size, jigsaw for the areas in regionFile (n rows of n area numbers, like a board file) and custom for
+    //exactly the regions in regionFile, one per line as flat cell indexes
+    public static Geometry forName(String variant, int boxSize, Path regionFile) throws IOException {
+        switch(variant) {
+            case "hyper":
+                return hyperWithImplied(boxSize);
+            case "plain":
+                return plain(boxSize);
+            case "x":
+                return diagonal(boxSize);
+            case "jigsaw":
+                return jigsaw(boxSize * boxSize, Program.readBoard(requireFile(variant, regionFile),
+                        boxSize * boxSize));
+            case "custom":
+                return custom(boxSize * boxSize, requireFile(variant, regionFile));
+            default:
+                throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+    }
+
+    //Helper function for forName. Read one region per non-empty line
+    private static Geometry custom(int n, Path regionFile) throws IOException {
+        List<int[]> regions = new ArrayList<>();
+        try(Scanner lines = new Scanner(regionFile.toFile())) {
+            while(lines.hasNextLine()) {
+                String line = lines.nextLine().trim();
+                if(!line.isEmpty()) {
+                    String[] tokens = line.split("\\s+");
+                    int[] region = new int[tokens.length];
+                    for(int i = 0; i < tokens.length; i++) {
+                        region[i] = Integer.parseInt(tokens[i]);
+                    }
+                    regions.add(region);
+                }
+            }
+        }
+        return new Geometry(n, regions.toArray(new int[0][]));
+    }
+
+    private static Path requireFile(String variant, Path regionFile) {
+        if(regionFile == null) {
+            throw new IllegalArgumentException("The " + variant + " variant needs a region file");
+        }
+        return regionFile;
+    }
+
+    private static int checkBoxSize(int boxSize) {
+        if(boxSize < 2 || boxSize > MAX_BOX_SIZE) {
+            throw new IllegalArgumentException("Box size must be between 2 and " + MAX_BOX_SIZE + ": " + boxSize);
+        }
+        return boxSize * boxSize;
+    }
+
+    //Rows then columns of an n x n board
+    private static List<int[]> lines(int n) {
+        List<int[]> regions = new ArrayList<>();
+        for(int row = 0; row < n; row++) {
+            int[] region = new int[n];
+            for(int col = 0; col < n; col++) {
+                region[col] = row * n + col;
+            }
+            regions.add(region);
+        }
+        for(int col = 0; col < n; col++) {
+            int[] region = new int[n];
+            for(int row = 0; row < n; row++) {
+                region[row] = row * n + col;
+            }
+            regions.add(region);
+        }
+        return regions;
+    }
+
+    //Non-overlapping boxSize x boxSize areas, left to right and top to bottom
+    private static List<int[]> boxes(int boxSize) {
+        int n = boxSize * boxSize;
+        List<int[]> regions = new ArrayList<>();
+        for(int top = 0; top < n; top += boxSize) {
+            for(int left = 0; left < n; left += boxSize) {
+                regions.add(square(n, top, left, boxSize));
+            }
+        }
+        return regions;
+    }
+
+    private static int[] square(int n, int top, int left, int side) {
+        int[] region = new int[side * side];
+        for(int i = 0; i < region.length; i++) {
+            region[i] = (top + i / side) * n + left + i % side;
+        }
+        return region;
+    }
+
+    //Return the flat index of a position on the board
+    public int index(int row, int col) {
+        return row * n + col;
+    }
+}
@@ -0,0 +1,233 @@
+package com.banana.hypersudoku;
+
+import java.util.ArrayList;
+
+//The class acts like a toolbox, provides heuristic and other functions
+class Heuristic {
+
+    //Bits per value in the orders returned by orderValues
+    public static final int VALUE_BITS = 4;
+
+    public static final long VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+    //Select the next unassigned variable in variableArray
+    public static Pos selectUnassignedVariable(Pos[][] variableArray) {
+        ArrayList<Pos> result = minimumRemainingValue(variableArray);
+        if(result.size() == 0) {
+            System.out.println("oops, something went wrong");
+            return null;
+
+        }
+        if(result.size() == 1) {
+            return result.get(0);
+        }
+        else {
+            result = degreeHeuristic(result, variableArray);
+            if(result.size() == 0) {
+                System.out.println("oops, something went wrong");
+                return null;
+
+            }
+            else {
+                return result.get(0);
+            }
+        }
+    }
+
+    //Select the next unassigned cell on the flat board, in the board's SearchOrder. Return -1 if every cell is assigned
+    public static int selectUnassignedVariable(Board board) {
+        if(board.order.variables == SearchOrder.Variables.DOM_WDEG) {
+            return domOverWeightedDegree(board);
+        }
+        return mrvDegree(board);
+    }
+
+    //Same rule as selectUnassignedVariable(Pos[][]), MRV first and then the degree heuristic, read off the board's
+    //domain-size buckets and unassigned-neighbor counts: only the cells of the smallest domain size are looked at,
+    //ties going to the lowest cell or, with randomized tie-breaking, to a random one
+    public static int mrvDegree(Board board) {
+        int size = 0;
+        while(size <= Program.DOMAIN && board.bucketHead[size] == Board.NONE) {
+            size++;
+        }
+        if(size > Program.DOMAIN) {
+            return -1;
+        }
+        boolean randomized = board.order.isRandomized();
+        int best = board.bucketHead[size];
+        int ties = 1;
+        for(int cell = board.next[best]; cell != Board.NONE; cell = board.next[cell]) {
+            if(board.degree[cell] > board.degree[best]) {
+                best = cell;
+                ties = 1;
+            }
+            else if(board.degree[cell] == board.degree[best]) {
+                ties++;
+                if(randomized ? nextRandom(board, ties) == 0 : cell < best) {
+                    best = cell;
+                }
+            }
+        }
+        return best;
+    }
+
+    //Select the cell with the smallest domain size over weighted degree, see SearchOrder.Variables.DOM_WDEG. Ties go
+    //to the lowest cell or, with randomized tie-breaking, to a random one
+    public static int domOverWeightedDegree(Board board) {
+        boolean randomized = board.order.isRandomized();
+        int best = -1;
+        long bestSize = 0;
+        long bestWeight = 1;
+        int ties = 0;
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            if(board.cells[cell] == 0) {
+                long size = Domain.size(board.domains[cell]);
+                long weight = weightedDegree(board, cell);
+                //size / weight < bestSize / bestWeight, with weights of at least 1
+                long difference = size * bestWeight - bestSize * weight;
+                if(best < 0 || difference < 0) {
+                    best = cell;
+                    bestSize = size;
+                    bestWeight = weight;
+                    ties = 1;
+                }
+                else if(difference == 0) {
+                    ties++;
+                    if(randomized && nextRandom(board, ties) == 0) {
+                        best = cell;
+                        bestSize = size;
+                        bestWeight = weight;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    //Helper function for domOverWeightedDegree. Add up the weights of the units of a blank cell that still have
+    //another blank cell, at least 1
+    public static long weightedDegree(Board board, int cell) {
+        long weight = 0;
+        for(int unit : Topology.CELL_UNITS[cell]) {
+            if(Domain.size(board.used[unit]) < Program.DOMAIN - 1) {
+                weight += 1 + board.conflicts[unit];
+            }
+        }
+        return Math.max(weight, 1);
+    }
+
+    //Return a random number from 0 to bound - 1 off the board's random state (xorshift)
+    public static int nextRandom(Board board, int bound) {
+        board.random = SearchOrder.nextRandomState(board.random);
+        return (int) Long.remainderUnsigned(board.random, bound);
+    }
+
+    //Return an ArrayList<Pos> of candidates which have the minimun domain size
+    public static ArrayList<Pos> minimumRemainingValue(Pos[][] variableArray) {
+        ArrayList<Pos> candidates = new ArrayList<>();
+        int minDomainSize = Program.DOMAIN;
+        for(int row = 0; row < Program.ROW; row++) {
+            for(int col = 0; col < Program.COL; col++) {
+                if(!variableArray[row][col].isAssigned && Domain.size(variableArray[row][col].domain) < minDomainSize){
+                    minDomainSize = Domain.size(variableArray[row][col].domain);
+                }
+            }
+        }
+        for(int row = 0; row < Program.ROW; row++) {
+            for(int col = 0; col < Program.COL; col++) {
+                if(!variableArray[row][col].isAssigned && Domain.size(variableArray[row][col].domain) == minDomainSize){
+                    candidates.add(variableArray[row][col]);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    //Return an ArrayList<Pos> of candidates which have the most unassigned neighbors among the candidates returned by MRV
+    public static ArrayList<Pos> degreeHeuristic(ArrayList<Pos> candidates, Pos[][] variableArray) {
+        ArrayList<Pos> superCandidates = new ArrayList<>();
+        int maxUnassignedNeighbor = 0;
+        for(Pos p : candidates) {
+            int n = countUnassignedNeighbors(p, variableArray);
+            if(n > maxUnassignedNeighbor) {
+                maxUnassignedNeighbor = n;
+            }
+        }
+        for(Pos p : candidates) {
+            if(countUnassignedNeighbors(p, variableArray) == maxUnassignedNeighbor) {
+                superCandidates.add(p);
+            }
+        }
+        return superCandidates;
+    }
+
+    //Helper function for degreeHeuristic. Return the number of unassigned neighbor of a variable
+    public static int countUnassignedNeighbors(Pos variable, Pos[][] variableArray) {
+        if(variable.isAssigned) {
+            return -1;
+        }
+        int unassignedNeighbors = 0;
+        for(int neighbor : Topology.PEERS[Topology.index(variable.row, variable.col)]) {
+            if(!variableArray[Topology.ROW_OF[neighbor]][Topology.COL_OF[neighbor]].isAssigned) {
+                unassignedNeighbors++;
+            }
+        }
+        return unassignedNeighbors;
+    }
+
+    //Return the number of unassigned neighbors of a cell on the flat board
+    public static int countUnassignedNeighbors(Board board, int cell) {
+        return board.degree[cell];
+    }
+
+    //Return the domain of ordered values. Default order is increasing order, which is the order of the set bits
+    //when walked from the lowest one.
+    public static int orderDomainValues(Pos variable) {
+        return variable.domain;
+    }
+
+    //Return the domain of a cell on the flat board, in increasing order when walked from the lowest set bit
+    public static int orderDomainValues(Board board, int cell) {
+        return board.domains[cell];
+    }
+
+    //Return the values of a cell on the flat board in the board's SearchOrder, packed four bits each with the first
+    //one in the lowest bits, so they are walked without allocating: take order & VALUE_MASK, then shift by VALUE_BITS
+    //until order is 0
+    public static long orderValues(Board board, int cell) {
+        int domain = board.domains[cell];
+        long order = 0;
+        if(board.order.values == SearchOrder.Values.ASCENDING) {
+            int shift = 0;
+            for(int values = domain; values != Domain.EMPTY; values &= values - 1) {
+                order |= (long) Domain.lowest(values) << shift;
+                shift += VALUE_BITS;
+            }
+            return order;
+        }
+        //Least constraining value: sort the values by the number of blank neighbors they would be pruned from,
+        //insertion sort on the packed keys, smaller values first on ties
+        long[] keyed = board.valueKeys;
+        int count = 0;
+        for(int values = domain; values != Domain.EMPTY; values &= values - 1) {
+            int value = Domain.lowest(values);
+            int ruledOut = 0;
+            for(int neighbor : Topology.PEERS[cell]) {
+                if(board.cells[neighbor] == 0 && Domain.contains(board.domains[neighbor], value)) {
+                    ruledOut++;
+                }
+            }
+            long key = (long) ruledOut << VALUE_BITS | value;
+            int i = count++;
+            while(i > 0 && keyed[i - 1] > key) {
+                keyed[i] = keyed[i - 1];
+                i--;
+            }
+            keyed[i] = key;
+        }
+        for(int i = count - 1; i >= 0; i--) {
+            order = order << VALUE_BITS | (keyed[i] & VALUE_MASK);
+        }
+        return order;
+    }
+}
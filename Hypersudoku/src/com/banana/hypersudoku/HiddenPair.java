@@ -0,0 +1,56 @@
+package com.banana.hypersudoku;
+
+//Two values that fit only the same two blank cells of a unit must go in those cells, so every other value is taken
+//away from both
+class HiddenPair implements Rule {
+
+    @Override
+    public String name() {
+        return "hidden pair";
+    }
+
+    @Override
+    public int apply(Board board) {
+        int changes = 0;
+        int[] places = new int[Program.DOMAIN + 1];
+        for(int unit = 0; unit < Topology.UNIT_COUNT; unit++) {
+            int[] cells = Topology.UNITS[unit];
+            int missing = Domain.FULL & ~board.used[unit];
+            //Bit i of places[value] is set if the value fits cells[i]
+            for(int values = missing; values != Domain.EMPTY; values &= values - 1) {
+                int value = Domain.lowest(values);
+                places[value] = 0;
+                for(int i = 0; i < cells.length; i++) {
+                    if(board.cells[cells[i]] == 0 && Domain.contains(board.domains[cells[i]], value)) {
+                        places[value] |= 1 << i;
+                    }
+                }
+                if(places[value] == 0) {
+                    return CONTRADICTION;
+                }
+            }
+            for(int first = missing; first != Domain.EMPTY; first &= first - 1) {
+                int value = Domain.lowest(first);
+                if(Integer.bitCount(places[value]) != 2) {
+                    continue;
+                }
+                for(int second = first & (first - 1); second != Domain.EMPTY; second &= second - 1) {
+                    int other = Domain.lowest(second);
+                    if(places[other] == places[value]) {
+                        int keep = Domain.bit(value) | Domain.bit(other);
+                        for(int i = 0; i < cells.length; i++) {
+                            int cell = cells[i];
+                            if((places[value] & 1 << i) != 0 && (board.domains[cell] & ~keep) != Domain.EMPTY) {
+                                if(!board.prune(cell, board.domains[cell] & ~keep)) {
+                                    return CONTRADICTION;
+                                }
+                                changes++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.banana.hypersudoku;
+
+//A value that fits only one blank cell of a unit is narrowed down to that cell
+class HiddenSingle implements Rule {
+
+    @Override
+    public String name() {
+        return "hidden single";
+    }
+
+    @Override
+    public int apply(Board board) {
+        int changes = 0;
+        for(int unit = 0; unit < Topology.UNIT_COUNT; unit++) {
+            int missing = Domain.FULL & ~board.used[unit];
+            for(int values = missing; values != Domain.EMPTY; values &= values - 1) {
+                int value = Domain.lowest(values);
+                int count = 0;
+                int last = -1;
+                for(int cell : Topology.UNITS[unit]) {
+                    if(board.cells[cell] == 0 && Domain.contains(board.domains[cell], value)) {
+                        count++;
+                        last = cell;
+                    }
+                }
+                if(count == 0) {
+                    return CONTRADICTION;
+                }
+                if(count == 1 && board.domains[last] != Domain.bit(value)) {
+                    board.prune(last, board.domains[last] & ~Domain.bit(value));
+                    changes++;
+                }
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,80 @@
+package com.banana.hypersudoku;
+
+import java.util.Arrays;
+
+//Pointing and box/line reduction, generalized to every pair of units that share more than one cell (a line and an
+//area, a line and an overlapping area, or an area and an overlapping area). If every place left for a value in one unit
+//is inside the other unit, the value is taken away from the rest of the other unit.
+class Intersection implements Rule {
+
+    //Ordered pairs of units sharing more than one cell, computed once
+    private static final int[] FROM;
+    private static final int[] TO;
+
+    static {
+        int pairCount = 0;
+        int[] from = new int[Topology.UNIT_COUNT * Topology.UNIT_COUNT];
+        int[] to = new int[Topology.UNIT_COUNT * Topology.UNIT_COUNT];
+        for(int a = 0; a < Topology.UNIT_COUNT; a++) {
+            for(int b = 0; b < Topology.UNIT_COUNT; b++) {
+                int shared = 0;
+                for(int cell : Topology.UNITS[a]) {
+                    if(Topology.IN_UNIT[b][cell]) {
+                        shared++;
+                    }
+                }
+                if(a != b && shared > 1) {
+                    from[pairCount] = a;
+                    to[pairCount] = b;
+                    pairCount++;
+                }
+            }
+        }
+        FROM = Arrays.copyOf(from, pairCount);
+        TO = Arrays.copyOf(to, pairCount);
+    }
+
+    @Override
+    public String name() {
+        return "pointing/box-line";
+    }
+
+    @Override
+    public int apply(Board board) {
+        int changes = 0;
+        for(int pair = 0; pair < FROM.length; pair++) {
+            int from = FROM[pair];
+            int to = TO[pair];
+            int missing = Domain.FULL & ~board.used[from];
+            for(int values = missing; values != Domain.EMPTY; values &= values - 1) {
+                int value = Domain.lowest(values);
+                if(isConfined(board, from, to, value)) {
+                    for(int cell : Topology.UNITS[to]) {
+                        if(!Topology.IN_UNIT[from][cell] && board.cells[cell] == 0
+                                && Domain.contains(board.domains[cell], value)) {
+                            if(!board.prune(cell, Domain.bit(value))) {
+                                return CONTRADICTION;
+                            }
+                            changes++;
+                        }
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    //Check if the value still fits somewhere in unit from, and only in cells that are also in unit to
+    private static boolean isConfined(Board board, int from, int to, int value) {
+        boolean found = false;
+        for(int cell : Topology.UNITS[from]) {
+            if(board.cells[cell] == 0 && Domain.contains(board.domains[cell], value)) {
+                if(!Topology.IN_UNIT[to][cell]) {
+                    return false;
+                }
+                found = true;
+            }
+        }
+        return found;
+    }
+}
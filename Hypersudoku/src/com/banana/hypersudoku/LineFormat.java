@@ -0,0 +1,43 @@
+package com.banana.hypersudoku;
+
+//The one-board-per-line format used for large puzzle files: 81 characters in row order, a digit 1-9 for a given
+//value and 0 or '.' for a blank cell. Solutions are written the same way.
+class LineFormat {
+
+    public static final int LENGTH = Program.ROW * Program.COL;
+
+    //Written instead of a solution for a board that has none, so output line n always belongs to input line n
+    public static final String NO_SOLUTION = "No solution";
+
+    //Parse a line into a game board. Throw IllegalArgumentException if it is not a board
+    public static Integer[][] parse(String line) {
+        if(line.length() != LENGTH) {
+            throw new IllegalArgumentException("Expected " + LENGTH + " characters, got " + line.length());
+        }
+        Integer[][] assignment = new Integer[Program.ROW][Program.COL];
+        for(int i = 0; i < LENGTH; i++) {
+            char c = line.charAt(i);
+            int value;
+            if(c == '.' || c == '0') {
+                value = 0;
+            }
+            else if(c >= '1' && c <= '9') {
+                value = c - '0';
+            }
+            else {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at " + i);
+            }
+            assignment[i / Program.COL][i % Program.COL] = value;
+        }
+        return assignment;
+    }
+
+    //Append a game board as a line, without the line separator
+    public static void format(Integer[][] assignment, StringBuilder builder) {
+        for(int row = 0; row < Program.ROW; row++) {
+            for(int col = 0; col < Program.COL; col++) {
+                builder.append((char) ('0' + assignment[row][col]));
+            }
+        }
+    }
+}
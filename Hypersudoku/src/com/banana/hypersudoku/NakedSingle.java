@@ -0,0 +1,29 @@
+package com.banana.hypersudoku;
+
+//A blank cell with a single value left gets that value, and the board's inference runs from it
+class NakedSingle implements Rule {
+
+    @Override
+    public String name() {
+        return "naked single";
+    }
+
+    @Override
+    public int apply(Board board) {
+        int changes = 0;
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            if(board.cells[cell] == 0 && Domain.size(board.domains[cell]) == 1) {
+                int value = Domain.lowest(board.domains[cell]);
+                if(!Constraint.isConsistent(board, cell, value)) {
+                    return CONTRADICTION;
+                }
+                board.assignOnTrail(cell, value);
+                changes++;
+                if(!Constraint.inference(board, cell, value)) {
+                    return CONTRADICTION;
+                }
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,58 @@
+package com.banana.hypersudoku;
+
+//Two blank cells of a unit sharing the same two values, or three sharing three, take those values away from the
+//other blank cells of the unit
+class NakedSubset implements Rule {
+
+    @Override
+    public String name() {
+        return "naked pair/triple";
+    }
+
+    @Override
+    public int apply(Board board) {
+        int changes = 0;
+        for(int[] unit : Topology.UNITS) {
+            for(int i = 0; i < unit.length; i++) {
+                for(int j = i + 1; j < unit.length && board.cells[unit[i]] == 0; j++) {
+                    if(board.cells[unit[j]] == 0) {
+                        int pair = board.domains[unit[i]] | board.domains[unit[j]];
+                        if(Domain.size(pair) == 2) {
+                            int n = eliminate(board, unit, pair, unit[i], unit[j], -1);
+                            if(n == CONTRADICTION) {
+                                return CONTRADICTION;
+                            }
+                            changes += n;
+                        }
+                        for(int k = j + 1; k < unit.length; k++) {
+                            int triple = pair | board.domains[unit[k]];
+                            if(board.cells[unit[k]] == 0 && Domain.size(triple) == 3) {
+                                int n = eliminate(board, unit, triple, unit[i], unit[j], unit[k]);
+                                if(n == CONTRADICTION) {
+                                    return CONTRADICTION;
+                                }
+                                changes += n;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    //Remove the subset's values from every blank cell of the unit outside the subset
+    private int eliminate(Board board, int[] unit, int values, int first, int second, int third) {
+        int changes = 0;
+        for(int cell : unit) {
+            if(board.cells[cell] == 0 && cell != first && cell != second && cell != third
+                    && (board.domains[cell] & values) != Domain.EMPTY) {
+                if(!board.prune(cell, values)) {
+                    return CONTRADICTION;
+                }
+                changes++;
+            }
+        }
+        return changes;
+    }
+}
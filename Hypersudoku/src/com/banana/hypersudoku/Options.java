@@ -0,0 +1,61 @@
+package com.banana.hypersudoku;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Command line arguments of Program.main: "--name=value" or "--name" options in any position, and the remaining
+//arguments in order
+class Options {
+
+    private final Map<String, String> named = new HashMap<>();
+
+    private final List<String> positional = new ArrayList<>();
+
+    public static Options parse(String[] args) {
+        Options options = new Options();
+        for(String arg : args) {
+            if(arg.startsWith("--")) {
+                int equals = arg.indexOf('=');
+                if(equals < 0) {
+                    options.named.put(arg.substring(2), "");
+                }
+                else {
+                    options.named.put(arg.substring(2, equals), arg.substring(equals + 1));
+                }
+            }
+            else {
+                options.positional.add(arg);
+            }
+        }
+        return options;
+    }
+
+    public boolean has(String name) {
+        return named.containsKey(name);
+    }
+
+    //Return the value of an option, or the default if it is not given
+    public String get(String name, String defaultValue) {
+        String value = named.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    //Return the value of an option as an int, or the default if it is not given or has no value
+    public int getInt(String name, int defaultValue) {
+        String value = named.get(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    //Same as getInt, for a long
+    public long getLong(String name, long defaultValue) {
+        String value = named.get(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    //Return the positional argument at index, or the default if there are fewer
+    public String positional(int index, String defaultValue) {
+        return index < positional.size() ? positional.get(index) : defaultValue;
+    }
+}
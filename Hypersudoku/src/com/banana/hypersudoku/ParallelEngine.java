@@ -0,0 +1,229 @@
+package com.banana.hypersudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//ParallelEngine splits the backtrack search of one board across the threads of a ForkJoinPool. On each of the top
+//splitDepth levels, the variable picked by Heuristic.selectUnassignedVariable is tried with every value of its domain
+//on a copy of the board, and each copy becomes a task the pool's work stealing spreads over the threads. Below that,
+//every task runs the usual sequential search on its own board. When solving, the first task to find a solution sets
+//a stop flag shared by all the copies, and the others give up. When counting, the tasks add up their counts and stop
+//once the limit is reached.
+class ParallelEngine implements Engine {
+
+    public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+
+    private final Propagation propagation;
+
+    private final RulePropagator rules;
+
+    private final int splitDepth;
+
+    //Forward checking only, on the common pool
+    public ParallelEngine() {
+        this(ForkJoinPool.commonPool(), Propagation.FORWARD_CHECKING, null, DEFAULT_SPLIT_DEPTH);
+    }
+
+    //rules may be null for none. Their counters, like the search counters, are merged back from every task when its
+    //part of the search ends
+    public ParallelEngine(ForkJoinPool pool, Propagation propagation, RulePropagator rules, int splitDepth) {
+        this.pool = pool;
+        this.propagation = propagation;
+        this.rules = rules;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public boolean solve(Board board) {
+        board.propagation = propagation;
+        board.rules = rules;
+        board.stop = new AtomicBoolean();
+        int mark = board.trailSize;
+        if(!prepare(board)) {
+            board.undoTo(mark);
+            return false;
+        }
+        Board solution = pool.invoke(new SolveTask(board.copy(), 0));
+        board.stop = null;
+        if(solution == null) {
+            board.undoTo(mark);
+            return false;
+        }
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            if(board.cells[cell] == 0) {
+                board.assign(cell, solution.cells[cell]);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int count(Board board, int limit) {
+        board.propagation = propagation;
+        board.rules = rules;
+        board.stop = new AtomicBoolean();
+        int mark = board.trailSize;
+        int count = 0;
+        if(prepare(board)) {
+            CountTask root = new CountTask(board.copy(), 0, limit, new AtomicInteger(), board.solution);
+            pool.invoke(root);
+            count = Math.min(root.total.get(), limit);
+        }
+        board.stop = null;
+        board.undoTo(mark);
+        return count;
+    }
+
+    //The propagation search() runs before the search starts
+    private static boolean prepare(Board board) {
+        return (board.propagation != Propagation.AC3 || Constraint.arcConsistency(board))
+                && (board.rules == null || board.rules.propagate(board));
+    }
+
+    //Helper function for the tasks. Make {cell = value} on a copy of the board, run inference and rules on it, and
+    //return the copy, or null if the assignment fails
+    private Board branch(Board board, int cell, int value) {
+        if(!Constraint.isConsistent(board, cell, value)) {
+            return null;
+        }
+        Board child = board.copy();
+        Program.makeAssignment(cell, value, child);
+        if(!Program.infer(child, cell, value)) {
+            mergeCounters(child);
+            return null;
+        }
+        return child;
+    }
+
+    //Add the rule counters of a finished task's board to the engine's propagator, and its search counters to those of
+    //the board the search started from
+    private void mergeCounters(Board board) {
+        if(rules != null && board.rules != null) {
+            synchronized(rules) {
+                rules.merge(board.rules);
+            }
+        }
+        if(board.stats != null) {
+            board.stats.mergeIntoRoot();
+        }
+    }
+
+    //Find a solution below a board. Return the solved board, or null
+    private class SolveTask extends RecursiveTask<Board> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+
+        private final int depth;
+
+        SolveTask(Board board, int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Board compute() {
+            if(board.stop.get()) {
+                return null;
+            }
+            if(depth >= splitDepth || Program.isComplete(board)) {
+                boolean solved = Program.backTrackAlgorithm(board);
+                mergeCounters(board);
+                if(solved) {
+                    board.stop.set(true);
+                    return board;
+                }
+                return null;
+            }
+            int curr = Heuristic.selectUnassignedVariable(board);
+            List<SolveTask> tasks = new ArrayList<>();
+            for(int values = Heuristic.orderDomainValues(board, curr); values != Domain.EMPTY; values &= values - 1) {
+                Board child = branch(board, curr, Domain.lowest(values));
+                if(child != null) {
+                    SolveTask task = new SolveTask(child, depth + 1);
+                    task.fork();
+                    tasks.add(task);
+                }
+            }
+            //The consistency checks of the branches above count on this board, so merge only now
+            mergeCounters(board);
+            Board solution = null;
+            for(SolveTask task : tasks) {
+                Board result = task.join();
+                if(solution == null) {
+                    solution = result;
+                }
+            }
+            return solution;
+        }
+    }
+
+    //Count the solutions below a board into total, and copy the first one found into firstSolution
+    private class CountTask extends RecursiveTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+
+        private final int depth;
+
+        private final int limit;
+
+        private final AtomicInteger total;
+
+        private final byte[] firstSolution;
+
+        CountTask(Board board, int depth, int limit, AtomicInteger total, byte[] firstSolution) {
+            this.board = board;
+            this.depth = depth;
+            this.limit = limit;
+            this.total = total;
+            this.firstSolution = firstSolution;
+        }
+
+        @Override
+        protected Void compute() {
+            if(board.stop.get()) {
+                return null;
+            }
+            if(depth >= splitDepth || Program.isComplete(board)) {
+                int count = Program.countAlgorithm(board, Math.max(limit - total.get(), 1), 0);
+                mergeCounters(board);
+                if(count > 0) {
+                    synchronized(firstSolution) {
+                        if(total.get() == 0) {
+                            System.arraycopy(board.solution, 0, firstSolution, 0, Board.SIZE);
+                        }
+                        if(total.addAndGet(count) >= limit) {
+                            board.stop.set(true);
+                        }
+                    }
+                }
+                return null;
+            }
+            int curr = Heuristic.selectUnassignedVariable(board);
+            List<CountTask> tasks = new ArrayList<>();
+            for(int values = Heuristic.orderDomainValues(board, curr); values != Domain.EMPTY; values &= values - 1) {
+                Board child = branch(board, curr, Domain.lowest(values));
+                if(child != null) {
+                    CountTask task = new CountTask(child, depth + 1, limit, total, firstSolution);
+                    task.fork();
+                    tasks.add(task);
+                }
+            }
+            //The consistency checks of the branches above count on this board, so merge only now
+            mergeCounters(board);
+            for(CountTask task : tasks) {
+                task.join();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.banana.hypersudoku;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Pipeline solves input files in three stages connected by bounded queues: one parser thread reads the files, a number
+//of solver threads solve them and the calling thread writes the solutions. Reading and writing overlap with solving.
+//A stage that falls behind blocks the stages before it, and at most capacity boards are in flight at any time, so a
+//slow disk cannot make memory grow. With ordered set, solutions are written in the order of the inputs.
+class Pipeline {
+
+    //One input file on its way through the pipeline
+    static class Job {
+
+        //Position of the input, used to restore the order
+        final int sequence;
+
+        final Path path;
+
+        //The game board, null if it could not be read
+        Integer[][] assignment;
+
+        SolveResult result;
+
+        //Why the file could not be read or solved, null if it went fine
+        Exception error;
+
+        Job(int sequence, Path path) {
+            this.sequence = sequence;
+            this.path = path;
+        }
+    }
+
+    //Marks the end of the inputs. The parser sends one per solver thread and each solver thread passes its one on
+    private static final Job END = new Job(-1, null);
+
+    //Counters of one stage, updated by its threads and read at any time
+    static class Stage {
+
+        final String name;
+
+        //The queue the stage takes its jobs from, null for the parser
+        final BlockingQueue<Job> input;
+
+        final AtomicLong jobs = new AtomicLong();
+
+        //Time the stage's threads spent working rather than waiting on a queue
+        final AtomicLong busyNanos = new AtomicLong();
+
+        //Sum and number of the input queue depths seen when the stage took a job, and the largest of them
+        final AtomicLong depthSum = new AtomicLong();
+        final AtomicLong depthSamples = new AtomicLong();
+        final AtomicLong maxDepth = new AtomicLong();
+
+        Stage(String name, BlockingQueue<Job> input) {
+            this.name = name;
+            this.input = input;
+        }
+
+        //Take the next job from the input queue, recording its depth
+        Job take() throws InterruptedException {
+            int depth = input.size();
+            depthSum.addAndGet(depth);
+            depthSamples.incrementAndGet();
+            maxDepth.accumulateAndGet(depth, Math::max);
+            return input.take();
+        }
+
+        void done(long startNanos) {
+            jobs.incrementAndGet();
+            busyNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+
+        //Jobs per second of busy time, summed over the stage's threads
+        double throughput() {
+            long busy = busyNanos.get();
+            return busy == 0 ? 0 : jobs.get() / (busy / 1e9);
+        }
+
+        double averageDepth() {
+            long samples = depthSamples.get();
+            return samples == 0 ? 0 : (double) depthSum.get() / samples;
+        }
+
+        @Override
+        public String toString() {
+            String queue = input == null ? "" : String.format(", queue depth avg %.1f max %d of %d", averageDepth(),
+                    maxDepth.get(), input.size() + input.remainingCapacity());
+            return String.format("%s: %d jobs, %.1f jobs/sec%s", name, jobs.get(), throughput(), queue);
+        }
+    }
+
+    private final Solver solver;
+
+    private final int solverThreads;
+
+    private final boolean ordered;
+
+    //Where the writer puts the solutions, null to write them to the Output file of each input
+    private final ResultSink sink;
+
+    private final Semaphore inFlight;
+
+    private final BlockingQueue<Job> solveQueue;
+
+    private final BlockingQueue<Job> writeQueue;
+
+    public final Stage parser;
+
+    public final Stage solvers;
+
+    public final Stage writer;
+
+    //capacity bounds each queue as well as the number of boards between the parser and the writer
+    public Pipeline(Solver solver, int solverThreads, int capacity, boolean ordered, ResultSink sink) {
+        this.solver = solver;
+        this.solverThreads = solverThreads;
+        this.ordered = ordered;
+        this.sink = sink;
+        this.inFlight = new Semaphore(capacity);
+        this.solveQueue = new ArrayBlockingQueue<>(capacity);
+        this.writeQueue = new ArrayBlockingQueue<>(capacity);
+        this.parser = new Stage("parse", null);
+        this.solvers = new Stage("solve", solveQueue);
+        this.writer = new Stage("write", writeQueue);
+    }
+
+    //Solve every input and write each solution to the sink, or to Program.outputFor() its input. Return the number of
+    //boards solved
+    public int run(List<Path> inputs) throws InterruptedException {
+        Thread parserThread = new Thread(() -> parse(inputs), "pipeline-parse");
+        parserThread.setDaemon(true);
+        parserThread.start();
+        for(int i = 0; i < solverThreads; i++) {
+            Thread solverThread = new Thread(this::solve, "pipeline-solve-" + i);
+            solverThread.setDaemon(true);
+            solverThread.start();
+        }
+        return write();
+    }
+
+    //Parser stage: read each input into a job, waiting while capacity boards are in flight
+    private void parse(List<Path> inputs) {
+        try {
+            for(int sequence = 0; sequence < inputs.size(); sequence++) {
+                inFlight.acquire();
+                long start = System.nanoTime();
+                Job job = new Job(sequence, inputs.get(sequence));
+                try {
+                    job.assignment = Program.readBoard(job.path);
+                } catch (IOException | RuntimeException e) {
+                    job.error = e;
+                }
+                parser.done(start);
+                solveQueue.put(job);
+            }
+            for(int i = 0; i < solverThreads; i++) {
+                solveQueue.put(END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Solver stage, run by each solver thread
+    private void solve() {
+        try {
+            Job job = solvers.take();
+            while(job != END) {
+                long start = System.nanoTime();
+                if(job.error == null) {
+                    try {
+                        job.result = solver.solve(job.assignment);
+                    } catch (RuntimeException e) {
+                        job.error = e;
+                    }
+                }
+                solvers.done(start);
+                writeQueue.put(job);
+                job = solvers.take();
+            }
+            writeQueue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Writer stage, run by the calling thread until every solver thread has finished. When ordered, jobs that arrive
+    //early wait in pending; there are never more of them than capacity
+    private int write() throws InterruptedException {
+        Map<Integer, Job> pending = new HashMap<>();
+        int next = 0;
+        int solved = 0;
+        int running = solverThreads;
+        while(running > 0) {
+            Job job = writer.take();
+            if(job == END) {
+                running--;
+            }
+            else if(!ordered) {
+                solved += writeJob(job);
+            }
+            else {
+                pending.put(job.sequence, job);
+                while(pending.containsKey(next)) {
+                    solved += writeJob(pending.remove(next));
+                    next++;
+                }
+            }
+        }
+        return solved;
+    }
+
+    //Helper function for write. Return 1 if the job was solved
+    private int writeJob(Job job) {
+        long start = System.nanoTime();
+        boolean print = ResultSink.printsBoards(sink);
+        int solved = 0;
+        try {
+            if(job.error != null) {
+                if(print) {
+                    System.out.printf("Failed to solve %s: %s%n", job.path.getFileName(), job.error);
+                }
+            }
+            else if(job.result.isSolved()) {
+                solved = 1;
+            }
+            else if(print) {
+                System.out.printf("No solution found: %s%n", job.path.getFileName());
+            }
+            if(sink != null) {
+                sink.write(solved == 1 ? job.result.solution : Program.FAILURE);
+            }
+            else if(solved == 1) {
+                Program.writeSolution(job.result.solution, Program.outputFor(job.path));
+            }
+        } catch (IOException e) {
+            System.out.printf("Failed to write %s: %s%n", job.path.getFileName(), e);
+        }
+        writer.done(start);
+        inFlight.release();
+        return solved;
+    }
+}
@@ -0,0 +1,45 @@
+package com.banana.hypersudoku;
+
+//Pos represents a variable on the board
+class Pos {
+    public int row, col;
+    public boolean isAssigned;
+    public Integer value;
+    //Bitmask of the remaining values, see Domain
+    public int domain;
+
+    public Pos(int row, int col) {
+        this.row = row;
+        this.col = col;
+        isAssigned = false;
+        value = null;
+        domain = Domain.FULL;
+    }
+
+    public Pos(int row, int col, Integer num) {
+        this.row = row;
+        this.col = col;
+        isAssigned = true;
+        value = num;
+        domain = Domain.EMPTY;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+        if(!(obj instanceof Pos)) {
+            return false;
+        }
+        if(((Pos) obj).isAssigned && this.isAssigned) {
+            return ((Pos) obj).value.equals(this.value);
+        }
+        return ((Pos) obj).domain == this.domain;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
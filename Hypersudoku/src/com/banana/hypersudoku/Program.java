@@ -1,13 +1,21 @@
 package com.banana.hypersudoku;
 
-import java.io.File;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Neal SHU
@@ -20,58 +28,383 @@ public class Program {
 
     public static final int DOMAIN = 9;
 
-    public static String dir = "D:\\Hypersudoku\\INPUT";
-
-    //The global variable stores the final assignment
-    public static Integer[][] staticResult = null;
+    public static final String DEFAULT_DIR = "D:\\Hypersudoku\\INPUT";
 
     public static final Integer[][] FAILURE = null;
 
-    public static Integer outputFileNum = 1;
+    public static final String INPUT_PREFIX = "Input";
+
+    public static final String OUTPUT_PREFIX = "Output";
+
+    //Main function. Walk over all input files in the given directory and execute backtrack algorithm one by one, or in
+    //parallel with --threads=N. Optional arguments: the engine to use (see Engine.forName) and the input directory.
+    //With --stream the path is instead a file with one board per line, see executeStream, and with --corpus a large
+    //file of boards in the input file format, see executeCorpus. With --pipeline the files go through a Pipeline with
+    //--threads solver threads, --queue boards in flight and, with --ordered, solutions written in input order.
+    //--output=none|summary|text|binary replaces the printed boards and Output files of the directory modes with one
+    //ResultSink, writing to --results (by default Output.txt or Output.bin in the directory). --cache=N answers boards
+    //equivalent to one of the last N solved from a SolutionCache, and --store=PATH answers boards solved in any earlier
+    //run from a SolutionStore file; both print their statistics at the end. --stats collects the counters of every
+    //search (see SearchStats), printed for each file when boards are printed and added up at the end.
+    //--propagation=fc|ac3 selects the inference run after each assignment, forward checking by default, see
+    //Propagation; dlx only runs fc. --rules also runs the rules of RulePropagator.standard() and prints how often each
+    //one fired at the end. --order=mrv|wdeg and --values=ascending|lcv change the order of the backtrack engine's
+    //search, and --restarts=N restarts it with Luby node budgets in units of N and random tie-breaking seeded by
+    //--seed, see SearchOrder. --backjump replaces its chronological backtracking with conflict-directed backjumping,
+    //keeping up to --nogoods=N nogoods, see ConflictSets. --box=N reads boards of N * N rows and columns instead and
+    //solves them with GeneralSearch, see executeGeneral, where --restarts defaults to one node per cell and 0 turns
+    //restarts off, and --variant=hyper|plain|x|jigsaw|custom solves another puzzle the same way, jigsaw and custom
+    //taking their regions from --regions=PATH (see Geometry.forName). Only --restarts and --seed apply to those.
+    //This only wires up a Solver; no state is kept between files
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options = Options.parse(args);
+        String engineName = options.positional(0, "backtrack");
+        if(options.has("box") || options.has("variant")) {
+            checkGeneralOptions(options, engineName);
+        }
+        SearchOrder order = SearchOrder.forNames(options.get("order", "mrv"), options.get("values", "ascending"),
+                options.getLong("restarts", 0), options.getLong("seed", 0));
+        Propagation propagation = Propagation.forName(options.get("propagation", "fc"));
+        boolean backjumping = options.has("backjump") || options.has("nogoods");
+        int nogoods = options.getInt("nogoods", 0);
+        RulePropagator rules = options.has("rules") ? RulePropagator.standard() : null;
+        //The counters of a propagator are not synchronized, so every thread running engines gets a fork of rules, each
+        //merged back into it at the end
+        List<RulePropagator> ruleForks = new ArrayList<>();
+        ThreadLocal<RulePropagator> threadRules = ThreadLocal.withInitial(() -> {
+            RulePropagator fork = rules.fork();
+            synchronized(ruleForks) {
+                ruleForks.add(fork);
+            }
+            return fork;
+        });
+        Engine.check(engineName, propagation, rules, order, backjumping, nogoods);
+        SolutionCache cache = options.has("cache") ? new SolutionCache(options.getInt("cache", 10000)) : null;
+        SolutionStore store = options.has("store") ? SolutionStore.open(Paths.get(options.get("store", ""))) : null;
+        Solver solver = new Solver(() -> Engine.forName(engineName, propagation,
+                rules == null ? null : threadRules.get(), order, backjumping, nogoods), cache, store,
+                options.has("stats"));
+        try {
+            execute(options, solver);
+        } finally {
+            if(store != null) {
+                store.close();
+            }
+        }
+        if(cache != null) {
+            System.out.println(cache);
+        }
+        if(store != null) {
+            System.out.println(store);
+        }
+        if(rules != null) {
+            for(RulePropagator fork : ruleForks) {
+                rules.merge(fork);
+            }
+            System.out.println("Rules: " + rules);
+        }
+        if(solver.totals() != null) {
+            System.out.println(solver.totals());
+        }
+    }
+
+    //Options of the main search that executeGeneral does not take
+    private static final String[] MAIN_SEARCH_OPTIONS = {"stream", "corpus", "pipeline", "threads", "queue", "ordered",
+            "output", "results", "cache", "store", "stats", "propagation", "rules", "order", "values", "backjump",
+            "nogoods"};
 
-    //Main function. Walk over all input files in the given directory and execute backtrack algorithm one by one
-    public static void main(String[] args) throws IOException {
-        Files.walk(Paths.get(dir)).filter(Files::isRegularFile).forEach(Program::executeFromFile);
+    //Helper function for main. Throw IllegalArgumentException if an option of the main search comes with --box or
+    //--variant, rather than ignore it: the general search runs one file after the other with the backtrack algorithm
+    //and forward checking, and only takes --restarts and --seed
+    public static void checkGeneralOptions(Options options, String engineName) {
+        if(!engineName.equals("backtrack")) {
+            throw new IllegalArgumentException("Engine " + engineName + " does not run --box or --variant");
+        }
+        for(String name : MAIN_SEARCH_OPTIONS) {
+            if(options.has(name)) {
+                throw new IllegalArgumentException("--" + name + " does not apply to --box or --variant");
+            }
+        }
+    }
+
+    //Helper function for main. Run the mode chosen by the options with the solver
+    public static void execute(Options options, Solver solver) throws IOException, InterruptedException {
+        if(options.has("stream")) {
+            Path input = Paths.get(options.positional(1, DEFAULT_DIR));
+            executeStream(input, outputFor(input), solver);
+            return;
+        }
+        if(options.has("corpus")) {
+            executeCorpus(Paths.get(options.positional(1, DEFAULT_DIR)), solver,
+                    options.getInt("threads", Runtime.getRuntime().availableProcessors()));
+            return;
+        }
+        Path dir = Paths.get(options.positional(1, DEFAULT_DIR));
+        List<Path> inputs = listInputs(dir);
+        if(options.has("box") || options.has("variant")) {
+            Path regionFile = options.has("regions") ? Paths.get(options.get("regions", "")) : null;
+            Geometry geometry = Geometry.forName(options.get("variant", "hyper"), options.getInt("box", 3), regionFile);
+            executeGeneral(inputs, geometry, options.getLong("restarts", GeneralSearch.defaultRestartUnit(geometry)),
+                    options.getLong("seed", 0));
+            return;
+        }
+        ResultSink sink = null;
+        if(options.has("output")) {
+            String mode = options.get("output", "").isEmpty() ? "summary" : options.get("output", "");
+            sink = ResultSink.open(mode, Paths.get(options.get("results", dir.resolve(ResultSink.defaultName(mode)).toString())));
+        }
+        try {
+            if(options.has("pipeline")) {
+                executePipeline(inputs, solver, options.getInt("threads", Runtime.getRuntime().availableProcessors()),
+                        options.getInt("queue", 64), options.has("ordered"), sink);
+            }
+            else if(options.has("threads")) {
+                executeBatch(inputs, solver, options.getInt("threads", Runtime.getRuntime().availableProcessors()), sink);
+            }
+            else if(sink != null) {
+                executeToSink(inputs, solver, sink);
+            }
+            else {
+                for(Path path : inputs) {
+                    executeFromFile(path, solver, outputFor(path));
+                }
+            }
+        } finally {
+            if(sink != null) {
+                sink.close();
+            }
+        }
     }
 
-    //Read from a file and initialize assignemnt and variableArray, then execute the backtrack algorithm and print the solution if exists.
-    public static void executeFromFile(Path path) {
+    //Return every input file under a directory, leaving out output files written by an earlier run
+    public static List<Path> listInputs(Path dir) throws IOException {
+        try(Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith(OUTPUT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
 
-        //assignment represents the game board, the actual assignment of values
-        Integer[][] assignment = new Integer[9][9];
-        //variableArray contains all 9x9 = 81 variables for each position of the game board
-        Pos[][] variableArray = new Pos[9][9];
+    //Return the output file of an input file, next to it: InputN.txt gives OutputN.txt, any other name gets the
+    //"Output" prefix. The name only depends on the input, so it does not matter in which order files are solved
+    public static Path outputFor(Path input) {
+        String name = input.getFileName().toString();
+        if(name.startsWith(INPUT_PREFIX)) {
+            return input.resolveSibling(OUTPUT_PREFIX + name.substring(INPUT_PREFIX.length()));
+        }
+        return input.resolveSibling(OUTPUT_PREFIX + name);
+    }
 
-        fillZero(assignment);
+    //Print how many boards were solved since start and the throughput, with the number of threads unless it is 0. Used by
+    //the execute methods
+    private static void printSummary(int solved, int boards, long start, int threads) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Solved %d of %d boards in %.3f s%s (%.1f boards/sec)%n", solved, boards, seconds,
+                threads == 0 ? "" : " on " + threads + " threads", boards / seconds);
+    }
 
+    //Solve files in parallel on a work-stealing ForkJoinPool with the given number of threads. Boards are not printed;
+    //each solution is written to outputFor() its input, or to the sink in input order if there is one. A summary with the
+    //throughput is printed at the end, unless the sink's mode is NONE
+    public static void executeBatch(List<Path> inputs, Solver solver, int threads, ResultSink sink) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        int solved = 0;
         try {
-            File file = path.toFile();
-            System.out.printf("File name: %s%n", file.getName());
+            List<ForkJoinTask<Integer[][]>> tasks = new ArrayList<>();
+            for(Path path : inputs) {
+                tasks.add(pool.submit(() -> solveFile(path, solver, sink)));
+            }
+            for(ForkJoinTask<Integer[][]> task : tasks) {
+                Integer[][] solution = task.join();
+                if(solution != FAILURE) {
+                    solved++;
+                }
+                if(sink != null) {
+                    sink.write(solution);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if(sink == null || sink.mode != ResultSink.Mode.NONE) {
+            printSummary(solved, inputs.size(), start, threads);
+        }
+    }
+
+    //Solve files one by one, writing each outcome to the sink instead of printing boards. A summary is printed at the
+    //end, unless the sink's mode is NONE
+    public static void executeToSink(List<Path> inputs, Solver solver, ResultSink sink) throws IOException {
+        long start = System.nanoTime();
+        for(Path path : inputs) {
+            sink.write(solveFile(path, solver, sink));
+        }
+        if(sink.mode != ResultSink.Mode.NONE) {
+            printSummary(sink.solved(), sink.boards(), start, 0);
+        }
+    }
+
+    //Solve files through a Pipeline: reading, solving on the given number of threads and writing overlap, with at most
+    //capacity boards in flight. Solutions go to the sink if there is one. Prints a summary followed by the jobs,
+    //throughput and queue depths of each stage, unless the sink's mode is NONE
+    public static void executePipeline(List<Path> inputs, Solver solver, int threads, int capacity, boolean ordered,
+                                       ResultSink sink) throws InterruptedException {
+        long start = System.nanoTime();
+        Pipeline pipeline = new Pipeline(solver, threads, capacity, ordered, sink);
+        int solved = pipeline.run(inputs);
+        if(sink != null && sink.mode == ResultSink.Mode.NONE) {
+            return;
+        }
+        printSummary(solved, inputs.size(), start, threads);
+        System.out.println(pipeline.parser);
+        System.out.println(pipeline.solvers);
+        System.out.println(pipeline.writer);
+    }
+
+    //Solve a file with one board per line (see LineFormat) as it is read, writing one line per board to output. Lines are
+    //read through a BufferedReader and written through a single BufferedWriter, so memory use does not depend on the
+    //size of the file. Empty lines are skipped; a line that is not a board stops the run with its line number
+    public static void executeStream(Path input, Path output, Solver solver) throws IOException {
+        long start = System.nanoTime();
+        int boards = 0;
+        int solved = 0;
+        int lineNumber = 0;
+        StringBuilder line = new StringBuilder(LineFormat.LENGTH);
+        try(BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.US_ASCII);
+            BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            String text;
+            while((text = reader.readLine()) != null) {
+                lineNumber++;
+                text = text.trim();
+                if(!text.isEmpty()) {
+                    Integer[][] assignment;
+                    try {
+                        assignment = LineFormat.parse(text);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException(String.format("Line %d of %s: %s", lineNumber, input, e.getMessage()), e);
+                    }
+                    SolveResult result = solver.solve(assignment);
+                    line.setLength(0);
+                    if(result.isSolved()) {
+                        LineFormat.format(result.solution, line);
+                        solved++;
+                    }
+                    else {
+                        line.append(LineFormat.NO_SOLUTION);
+                    }
+                    writer.append(line).append('\n');
+                    boards++;
+                }
+            }
+        }
+        printSummary(solved, boards, start, 0);
+    }
 
-            Scanner scanner = new Scanner(file);
+    //Solve every board of a large file in the input file format on the given number of threads, for benchmarking. The
+    //file is split into memory-mapped chunks (see Corpus) that the threads of a ForkJoinPool decode and solve without
+    //creating Strings or Integers. Only a summary is printed
+    public static void executeCorpus(Path corpus, Solver solver, int threads) throws IOException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try(FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            long[] offsets = Corpus.split(channel, threads * 4);
+            List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+            for(int chunk = 0; chunk + 1 < offsets.length; chunk++) {
+                long chunkStart = offsets[chunk];
+                long chunkEnd = offsets[chunk + 1];
+                tasks.add(pool.submit(() -> solveChunk(channel, chunkStart, chunkEnd, solver)));
+            }
+            int boards = 0;
+            int solved = 0;
+            for(ForkJoinTask<int[]> task : tasks) {
+                int[] counts = task.join();
+                boards += counts[0];
+                solved += counts[1];
+            }
+            printSummary(solved, boards, start, threads);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //Helper function for executeCorpus. Solve every board of one chunk and return {boards, solved}
+    public static int[] solveChunk(FileChannel channel, long start, long end, Solver solver) throws IOException {
+        Corpus.ChunkReader reader = new Corpus.ChunkReader(channel, start, end);
+        byte[] cells = new byte[Board.SIZE];
+        byte[] solution = new byte[Board.SIZE];
+        int[] counts = new int[2];
+        while(reader.next(cells)) {
+            counts[0]++;
+            if(solver.solve(cells, solution)) {
+                counts[1]++;
+            }
+        }
+        return counts;
+    }
 
+    //Solve one file without printing the boards. Without a sink the solution is written to outputFor() the file, with
+    //one the caller writes it. Messages about the file are printed unless the sink's mode is NONE. Return the solution,
+    //or FAILURE if there is none or the file could not be read
+    public static Integer[][] solveFile(Path path, Solver solver, ResultSink sink) {
+        boolean print = ResultSink.printsBoards(sink);
+        try {
+            SolveResult result = solver.solve(readBoard(path));
+            if(!result.isSolved()) {
+                if(print) {
+                    System.out.printf("No solution found: %s%n", path.getFileName());
+                }
+                return FAILURE;
+            }
+            if(sink == null) {
+                writeSolution(result.solution, outputFor(path));
+            }
+            return result.solution;
+        } catch (IOException | RuntimeException e) {
+            if(print) {
+                System.out.printf("Failed to solve %s: %s%n", path.getFileName(), e);
+            }
+            return FAILURE;
+        }
+    }
+
+    //Read a game board from a file: 9 rows of 9 integers, 0 for a blank cell
+    public static Integer[][] readBoard(Path path) throws IOException {
+        Integer[][] assignment = new Integer[ROW][COL];
+        try(Scanner scanner = new Scanner(path.toFile())) {
             for(int row = 0; row < ROW; row++) {
                 for(int col = 0; col < COL; col++) {
                     assignment[row][col] = scanner.nextInt();
                 }
             }
+        }
+        return assignment;
+    }
+
+    //Read from a file and solve it with the solver, print the solution if exists and write it to output.
+    public static void executeFromFile(Path path, Solver solver, Path output) {
+
+        try {
+            System.out.printf("File name: %s%n", path.getFileName());
+
+            //assignment represents the game board, the actual assignment of values
+            Integer[][] assignment = readBoard(path);
 
             System.out.println("Initial assignment");
             printBoard(assignment);
-            initializeVar(variableArray, assignment);
-            if(backTrack(assignment, variableArray)) {
+            SolveResult result = solver.solve(assignment);
+            if(result.isSolved()) {
                 System.out.println("Final assignment");
-                printBoard(staticResult);
+                printBoard(result.solution);
+                if(result.stats != null) {
+                    System.out.println(result.stats);
+                }
+                writeSolution(result.solution, output);
             }
             else {
                 System.out.println("No solution found");
             }
 
-            writeSolution(staticResult);
-
-            //clear the result assignment
-            staticResult = new Integer[9][9];
-
         } catch (FileNotFoundException ex) {
             System.out.println("File not found");
             ex.printStackTrace();
@@ -80,13 +413,44 @@ public class Program {
         }
     }
 
-    //Write the solution to output.txt
-    public static void writeSolution(Integer[][] assignment) throws IOException {
+    //Helper function for execute. Solve boards of any geometry, writing each solution to its Output file in the same
+    //format as the input, restarting as GeneralSearch.solve does. Boards are not printed; a line per file tells how it
+    //went
+    public static void executeGeneral(List<Path> inputs, Geometry geometry, long restartUnit, long seed) {
+        for(Path path : inputs) {
+            try {
+                long start = System.nanoTime();
+                GeneralBoard board = GeneralBoard.fromCells(geometry, readBoard(path, geometry.n));
+                boolean solved = board != null && GeneralSearch.solve(board, restartUnit, seed);
+                double millis = (System.nanoTime() - start) / 1e6;
+                if(solved) {
+                    writeSolution(board.cells, geometry.n, outputFor(path));
+                    System.out.printf("%s: solved in %.3f ms%n", path.getFileName(), millis);
+                }
+                else {
+                    System.out.printf("%s: no solution found%n", path.getFileName());
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.printf("Failed to solve %s: %s%n", path.getFileName(), e);
+            }
+        }
+    }
 
-        File output = new File(String.format(dir + "\\Output%d.txt", outputFileNum));
+    //Read a board of n rows of n integers from a file, in row order, 0 for a blank cell
+    public static int[] readBoard(Path path, int n) throws IOException {
+        int[] cells = new int[n * n];
+        try(Scanner scanner = new Scanner(path.toFile())) {
+            for(int cell = 0; cell < cells.length; cell++) {
+                cells[cell] = scanner.nextInt();
+            }
+        }
+        return cells;
+    }
 
-        outputFileNum++;
-        FileWriter writer = new FileWriter(output);
+    //Write the solution to the output file
+    public static void writeSolution(Integer[][] assignment, Path output) throws IOException {
+
+        FileWriter writer = new FileWriter(output.toFile());
 
         for (int row = 0; row < ROW; row++) {
             for (int col = 0; col < COL; col++) {
@@ -98,6 +462,18 @@ public class Program {
         writer.close();
     }
 
+    //Write a solution of n rows of n integers to the output file
+    public static void writeSolution(int[] cells, int n, Path output) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            for(int row = 0; row < n; row++) {
+                for(int col = 0; col < n; col++) {
+                    writer.write(cells[row * n + col] + " ");
+                }
+                writer.write("\n");
+            }
+        }
+    }
+
     //Set up the variableArray by initializing a new Pos type in each position on the game board
     public static void initializeVar(Pos[][] variableArray, Integer[][] assignment) {
         for(int row = 0; row < ROW; row++) {
@@ -137,735 +513,350 @@ public class Program {
     //This is the main csp problem solver. The function takes the initial game board and its variableArray,
     //runs forward checking, and then runs the backtrack algorithm.
     public static boolean backTrack(Integer[][] assignment, Pos[][] variableArray) {
-        if(!Constraint.forwardChecking(assignment, variableArray)) {
-            return false;
-        }
-        Integer[][] output = backTrackAlgorithm(assignment, variableArray);
-        return Constraint.isValid(output);
+        return backTrack(assignment, variableArray, Propagation.FORWARD_CHECKING);
     }
 
-    //After foward checking is executed on the initial assignment and variableArray
-    public static Integer[][] backTrackAlgorithm(Integer[][] assignment, Pos[][] variableArray) {
-        if(isComplete(assignment)) {
-            staticResult = assignment;
-            return assignment;
-        }
-        Pos curr = Heuristic.selectUnassignedVariable(variableArray);
-        ArrayList<Integer> valueArray = Heuristic.orderDomainValues(curr);
-        for(Integer value : valueArray) {
-            if(Constraint.isConsistent(curr, value, assignment)) {
-                ArrayList<Integer> savedDomain = curr.domain;
-                makeAssignment(curr.row, curr.col, value, assignment, variableArray);
-                Integer[][] result = backTrackAlgorithm(assignment, variableArray);
-                if(result != FAILURE && Constraint.isValid(result)) {
-                    return result;
-                }
-                if(!removeAssignment(curr.row, curr.col, assignment, variableArray, savedDomain)) {
-                    return FAILURE;
-                }
-            }
-        }
-
-        return FAILURE;
+    //Same as above, with the inference used during the search selected by the caller
+    public static boolean backTrack(Integer[][] assignment, Pos[][] variableArray, Propagation propagation) {
+        return backTrack(assignment, variableArray, propagation, null);
     }
 
-    //Make an assignment {var = value}
-    public static void makeAssignment(int row, int col, Integer value, Integer[][] assignment, Pos[][] variableArray) {
-        variableArray[row][col].isAssigned = true;
-        variableArray[row][col].value = value;
-        variableArray[row][col].domain = null;
-        assignment[row][col] = value;
-
+    //Same as above, also running the given rules, see RulePropagator
+    public static boolean backTrack(Integer[][] assignment, Pos[][] variableArray, Propagation propagation,
+                                    RulePropagator rules) {
+        return backTrack(assignment, variableArray, new BacktrackEngine(propagation, rules));
     }
 
-    //Remove an assignment
-    public static boolean removeAssignment(int row, int col, Integer[][] assignment, Pos[][] variableArray, ArrayList<Integer> domain) {
-        if(variableArray[row][col].isAssigned) {
-            variableArray[row][col].isAssigned = false;
-            variableArray[row][col].value = null;
-            variableArray[row][col].domain = domain;
-            assignment[row][col] = 0;
-            return true;
-        }
-        System.out.println("removeAssignment: failed");
-        return false;
+    //Same as above, with forward checking followed by the given engine instead of the backtrack algorithm
+    public static boolean backTrack(Integer[][] assignment, Pos[][] variableArray, Engine engine) {
+        return backTrack(assignment, variableArray, engine, null);
     }
 
-    //Check if the game board is completely assigned, i.e. check if all variables are assigned
-    public static boolean isComplete(Integer[][] assignment) {
-        for(int row = 0; row < ROW; row++) {
-            for(int col = 0; col < COL; col++) {
-                if(assignment[row][col] == 0) {
-                    return false;
-                }
-            }
+    //Same as above, collecting the counters of the search into stats, which may be null. The initial forward checking
+    //counts as inference. Forward checking on variableArray only prunes blank cells, so the givens are first checked
+    //against each other by forward checking on the flat board, as in countSolutions
+    public static boolean backTrack(Integer[][] assignment, Pos[][] variableArray, Engine engine, SearchStats stats) {
+        long start = System.nanoTime();
+        boolean consistent = Constraint.forwardChecking(Board.fromAssignment(assignment))
+                && Constraint.forwardChecking(assignment, variableArray);
+        if(stats != null) {
+            stats.inferenceNanos += System.nanoTime() - start;
+        }
+        if(!consistent) {
+            return false;
         }
-        return true;
+        Integer[][] output = solve(assignment, variableArray, engine, stats);
+        return output != FAILURE && Constraint.isValid(output);
     }
 
-}
-
-//Pos represents a variable on the board
-class Pos {
-    public int row, col;
-    public boolean isAssigned;
-    public Integer value;
-    public ArrayList<Integer> domain;
-
-    public Pos(int row, int col) {
-        this.row = row;
-        this.col = col;
-        isAssigned = false;
-        value = null;
-        domain = new ArrayList<>();
-        for(int i = 1; i <= Program.DOMAIN; i++) {
-            domain.add(i);
+    //Count the solutions of a game board with an engine, up to limit. Forward checking on the flat board runs first,
+    //as in Solver, so a board whose givens clash has no solutions. If there is a solution, the first one found is
+    //written to assignment
+    public static int countSolutions(Integer[][] assignment, Pos[][] variableArray, Engine engine, int limit) {
+        Board board = Board.fromAssignment(assignment);
+        if(!Constraint.forwardChecking(board)) {
+            return 0;
+        }
+        int count = engine.count(board, limit);
+        if(count > 0) {
+            board.solutionToVariables(assignment, variableArray);
         }
+        return count;
     }
 
-    public Pos(int row, int col, Integer num) {
-        this.row = row;
-        this.col = col;
-        isAssigned = true;
-        value = num;
-        domain = null;
+    //Check if a game board has exactly one solution, which only needs to count up to 2
+    public static boolean hasUniqueSolution(Integer[][] assignment, Pos[][] variableArray, Engine engine) {
+        return countSolutions(assignment, variableArray, engine, 2) == 1;
     }
 
-    @Override
-    public boolean equals(Object obj) {
-        if(obj == this) {
-            return true;
-        }
-        if(!(obj instanceof Pos)) {
-            return false;
-        }
-        if(((Pos) obj).isAssigned && this.isAssigned) {
-            return ((Pos) obj).value.equals(this.value);
-        }
-        return ((Pos) obj).domain.equals(this.domain);
+    //After foward checking is executed on the initial assignment and variableArray. This is an adapter over the flat
+    //search below, see solve().
+    public static Integer[][] backTrackAlgorithm(Integer[][] assignment, Pos[][] variableArray) {
+        return backTrackAlgorithm(assignment, variableArray, Propagation.FORWARD_CHECKING);
     }
 
-    @Override
-    public int hashCode() {
-        return super.hashCode();
+    //Same as above, with the inference used during the search selected by the caller
+    public static Integer[][] backTrackAlgorithm(Integer[][] assignment, Pos[][] variableArray, Propagation propagation) {
+        return backTrackAlgorithm(assignment, variableArray, propagation, null);
     }
-}
 
-//The class acts like a toolbox, provides constraint-checking functions
-class Constraint {
+    //Same as above, also running the given rules to fixpoint before the search and after each inference
+    public static Integer[][] backTrackAlgorithm(Integer[][] assignment, Pos[][] variableArray, Propagation propagation,
+                                                 RulePropagator rules) {
+        return solve(assignment, variableArray, new BacktrackEngine(propagation, rules));
+    }
 
-    //Check and update all variables' domains. Return false if any variable's domain is empty list
-    public static boolean forwardChecking(Integer[][] assignment, Pos[][] variableArray) {
-        //Check all rows and update their domains
-        for(int row = 0; row < Program.ROW; row++) {
-            if(!updateRow(row, assignment, variableArray)) {
-                return false;
-            }
+    //Run an engine on a game board whose variableArray has been forward checked. This is the adapter between the
+    //Integer[][] API and the flat Board the engines work on: the game board is copied into a Board once, and copied
+    //back if a solution is found.
+    public static Integer[][] solve(Integer[][] assignment, Pos[][] variableArray, Engine engine) {
+        return solve(assignment, variableArray, engine, null);
+    }
 
+    //Same as above, collecting the counters of the search into stats, which may be null
+    public static Integer[][] solve(Integer[][] assignment, Pos[][] variableArray, Engine engine, SearchStats stats) {
+        Board board = Board.fromVariables(assignment, variableArray);
+        board.stats = stats;
+        if(!engine.solve(board)) {
+            return FAILURE;
         }
-        //Check all columns and update their domains
-        for(int col = 0; col < Program.COL; col++) {
-            if(!updateCol(col, assignment, variableArray)) {
-                return false;
-            }
-        }
-        //Check all non-overlapping area and update their domains
-        for(int area = 0; area < 9; area += 3) {
-            for(int j = 0; j < 9; j += 3) {
-                if(!updateArea(area, j, assignment, variableArray)) {
-                    return false;
-                }
-            }
-        }
-        //Check all overlapping area and update their domains
-        for(int area = 0; area < 4; area++) {
-            // #1
-            if(!updateArea(1,1, assignment, variableArray)) {
-                return false;
-            }
-            // #2
-            if(!updateArea(1,5, assignment, variableArray)) {
-                return false;
-            }
-            // #3
-            if(!updateArea(5,1, assignment, variableArray)) {
-                return false;
-            }
-            // #4
-            if(!updateArea(5,5, assignment, variableArray)) {
-                return false;
-            }
-        }
-        return true;
+        board.toVariables(assignment, variableArray);
+        return assignment;
     }
 
-    //Check if game board is valid by checking if all constraints are satisfied
-    public static boolean isValid(Integer[][] assignment) {
-        if(assignment == null) {
-            System.out.println("isValid: assignment is null");
-            return false;
-        }
-        HashSet<Integer> checkDup = new HashSet<>();
-        //Row check
-        for(int row = 0; row < Program.ROW; row++) {
-            for(int col = 0; col < Program.COL; col++) {
-                if(!assignment[row][col].equals(0) && !checkDup.add(assignment[row][col])) {
-                    return false;
-                }
-            }
-            checkDup.clear();
-        }
-        //Col check
-        for(int col = 0; col < Program.COL; col++) {
-            for(int row = 0; row < Program.ROW; row++) {
-                if(!checkDup.add(assignment[row][col])) {
-                    return false;
-                }
-            }
-            checkDup.clear();
-        }
-        //Non-overlapping area check
-        // #1
-        if(!isValidArea(0, 0, assignment)) {
-            return false;
-        }
-        // #2
-        if(!isValidArea(0, 3, assignment)) {
-            return false;
-        }
-        // #3
-        if(!isValidArea(0, 6, assignment)) {
-            return false;
-        }
-        // #4
-        if(!isValidArea(3, 0, assignment)) {
-            return false;
-        }
-        // #5
-        if(!isValidArea(3, 3, assignment)) {
-            return false;
-        }
-        // #6
-        if(!isValidArea(3, 6, assignment)) {
-            return false;
-        }
-        // #7
-        if(!isValidArea(6, 0, assignment)) {
-            return false;
-        }
-        // #8
-        if(!isValidArea(6, 3, assignment)) {
-            return false;
-        }
-        // #9
-        if(!isValidArea(6, 6, assignment)) {
-            return false;
+    //Run the propagation selected on the board once before the search: AC-3 if it is the board's inference, then the
+    //board's rules. Then run the backtrack algorithm. Return false with the board as it was given if there is no
+    //solution
+    public static boolean search(Board board) {
+        int mark = board.trailSize;
+        if((board.propagation != Propagation.AC3 || Constraint.arcConsistency(board))
+                && (board.rules == null || board.rules.propagate(board))
+                && (board.order.restartUnit == 0 ? runSearch(board) : restartSearch(board))) {
+            return true;
         }
+        board.undoTo(mark);
+        return false;
+    }
 
-        //Overlapping area check
-        // #1
-        if(!isValidArea(1, 1, assignment)) {
-            return false;
-        }
-        // #2
-        if(!isValidArea(1, 5, assignment)) {
-            return false;
+    //Run the backtrack algorithm over and over, run i allowed restartUnit * luby(i) nodes (see SearchOrder), until one
+    //finds a solution or searches the whole tree within its allowance. A run that gives up leaves the board as it was
+    //given, apart from the dom/wdeg weights and the random state, so the next one searches differently
+    public static boolean restartSearch(Board board) {
+        SearchOrder.restart(board.order.restartUnit, nodes -> {
+            if(board.stop != null && board.stop.get()) {
+                return 0;
+            }
+            board.nodesLeft = nodes;
+            runSearch(board);
+            if(board.stats != null && board.nodesLeft < 0) {
+                board.stats.restarts++;
+            }
+            return board.nodesLeft;
+        });
+        board.nodesLeft = Long.MAX_VALUE;
+        return isComplete(board);
+    }
+
+    //The backtrack algorithm on the flat board. After each assignment it runs the board's inference and then its rules,
+    //if any. Return true and leave the solution on the board if one is found, otherwise return false with the board as
+    //it was given. Changes made by inference and rules are undone from the board's trail, and no allocation happens
+    //here. Also returns false once the board's stop flag is set.
+    public static boolean backTrackAlgorithm(Board board) {
+        if(board.stats != null) {
+            board.stats.nodes++;
         }
-        // #3
-        if(!isValidArea(5, 1, assignment)) {
-            return false;
+        if(isComplete(board)) {
+            return true;
         }
-        // #4
-        if(!isValidArea(5, 5, assignment)) {
+        if(board.stop != null && board.stop.get()) {
             return false;
         }
-        return true;
-    }
-
-    //A helper function for isValid(), check validity for areas
-    public static boolean isValidArea(int topLeftRow, int topLeftCol, Integer[][] assignment) {
-        if(topLeftRow < 0 ||topLeftRow > 6 || topLeftCol < 0 || topLeftCol > 6) {
-            System.out.println("isValidArea: invalid row or col given");
+        if(--board.nodesLeft < 0) {
             return false;
         }
-        HashSet<Integer> checkDup = new HashSet<>();
-        for(int row = topLeftRow; row < topLeftRow + 3; row++) {
-            for(int col = topLeftCol; col < topLeftCol + 3; col++) {
-                if(!assignment[row][col].equals(0) && !checkDup.add(assignment[row][col])) {
-                    return false;
+        int curr = selectVariable(board);
+        for(long order = Heuristic.orderValues(board, curr); order != 0 && board.nodesLeft >= 0;
+                order >>>= Heuristic.VALUE_BITS) {
+            int value = (int) (order & Heuristic.VALUE_MASK);
+            if(Constraint.isConsistent(board, curr, value)) {
+                int mark = board.trailSize;
+                makeAssignment(curr, value, board);
+                if(infer(board, curr, value) && backTrackAlgorithm(board)) {
+                    return true;
                 }
+                board.undoTo(mark);
+                removeAssignment(curr, board);
             }
         }
-        return true;
+        return false;
     }
 
-    //Check if an assignment is consistent by checking if any neighbor of this variable already has the same value assigned
-    public static boolean isConsistent(Pos variable, Integer value, Integer[][] assignment) {
-        //Check row
-        for(int col = 0; col < Program.COL; col++) {
-            if(assignment[variable.row][col].equals(value)) {
-                return false;
-            }
-        }
-        //Check col
-        for(int row = 0; row < Program.ROW; row++) {
-            if(assignment[row][variable.col].equals(value)) {
-                return false;
-            }
+    //Helper function for search and restartSearch. Run the backtrack algorithm, with conflict-directed backjumping if
+    //the board has ConflictSets
+    public static boolean runSearch(Board board) {
+        if(board.conflictSets == null) {
+            return backTrackAlgorithm(board);
         }
+        return backJumpAlgorithm(board) == ConflictSets.SOLVED;
+    }
 
-        //Find the variable's non-overlapping area, and check non-overlapping area
-        // #1
-        if(variable.row < 3 && variable.col < 3) {
-            for(int row = 0; row < 3; row++) {
-                for(int col = 0; col < 3; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #2
-        if(variable.row < 3 && variable.col >= 3 && variable.col < 6) {
-            for(int row = 0; row < 3; row++) {
-                for(int col = 3; col < 6; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #3
-        if(variable.row < 3 && variable.col >= 6) {
-            for(int row = 0; row < 3; row++) {
-                for(int col = 6; col < 9; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #4
-        if(variable.row >= 3 && variable.row < 6 && variable.col < 3) {
-            for(int row = 3; row < 6; row++) {
-                for(int col = 0; col < 3; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #5
-        if(variable.row >= 3 && variable.row < 6 && variable.col >= 3 && variable.col < 6) {
-            for(int row = 3; row < 6; row++) {
-                for(int col = 3; col < 6; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
+    //The backtrack algorithm with conflict-directed backjumping (FC-CBJ). A dead end does not step back one level but
+    //jumps straight to the deepest level whose assignment took part in it, skipping the levels in between, which
+    //chronological backtracking would try every value of in vain. Only valid with forward checking alone, so every
+    //pruned value can be traced to the assignment that pruned it. Return ConflictSets.SOLVED with the solution on the
+    //board, ConflictSets.ABORTED if the search was stopped or ran out of nodes, and otherwise the level to jump back to,
+    //0 if the board has no solution. Like backTrackAlgorithm, every change is undone unless a solution is found
+    public static int backJumpAlgorithm(Board board) {
+        if(board.stats != null) {
+            board.stats.nodes++;
+        }
+        if(isComplete(board)) {
+            return ConflictSets.SOLVED;
+        }
+        if((board.stop != null && board.stop.get()) || --board.nodesLeft < 0) {
+            return ConflictSets.ABORTED;
+        }
+        ConflictSets sets = board.conflictSets;
+        int curr = selectVariable(board);
+        int level = sets.push(curr);
+        int result = level;
+        for(long order = Heuristic.orderValues(board, curr); order != 0 && result == level;
+                order >>>= Heuristic.VALUE_BITS) {
+            int value = (int) (order & Heuristic.VALUE_MASK);
+            if(!Constraint.isConsistent(board, curr, value)) {
+                sets.explainInconsistent(board, curr, value);
+            }
+            else if(!sets.violatesNogood(board, curr, value)) {
+                int mark = board.trailSize;
+                makeAssignment(curr, value, board);
+                if(infer(board, curr, value)) {
+                    result = backJumpAlgorithm(board);
                 }
-            }
-        }
-        // #6
-        if(variable.row >= 3 && variable.row < 6 && variable.col >= 6) {
-            for(int row = 3; row < 6; row++) {
-                for(int col = 6; col < 9; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #7
-        if(variable.row >= 6 && variable.col < 3) {
-            for(int row = 6; row < 9; row++) {
-                for(int col = 0; col < 3; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #8
-        if(variable.row >= 6 && variable.col >= 3 && variable.col < 6) {
-            for(int row = 6; row < 9; row++) {
-                for(int col = 3; col < 6; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #9
-        if(variable.row >= 6 && variable.col >= 6) {
-            for(int row = 6; row < 9; row++) {
-                for(int col = 6; col < 9; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        //Find the variable's overlapping area, if any, and check overlapping area
-        // #1
-        if(variable.row >= 1 && variable.row < 4 && variable.col >= 1 && variable.col < 4) {
-            for(int row = 1; row < 4; row++) {
-                for(int col = 1; col < 4; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        // #2
-        if(variable.row >= 1 && variable.row < 4 && variable.col >= 5 && variable.col < 8) {
-            for(int row = 1; row < 4; row++) {
-                for(int col = 5; col < 8; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
+                else {
+                    sets.explainWipeout();
                 }
-            }
-        }
-        // #3
-        if(variable.row >= 5 && variable.row < 8 && variable.col >= 1 && variable.col < 4) {
-            for(int row = 5; row < 8; row++) {
-                for(int col = 1; col < 4; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
+                if(result == ConflictSets.SOLVED) {
+                    return result;
                 }
+                board.undoTo(mark);
+                removeAssignment(curr, board);
             }
         }
-        // #4
-        if(variable.row >= 5 && variable.row < 8 && variable.col >= 5 && variable.col < 8) {
-            for(int row = 5; row < 8; row++) {
-                for(int col = 5; col < 8; col++) {
-                    if(assignment[row][col].equals(value)) {
-                        return false;
-                    }
-                }
-            }
+        if(result == level) {
+            result = sets.exhausted(board, curr, board.stats);
         }
-        return true;
+        sets.pop();
+        return result;
     }
 
-    //Helper function for forward checking. Check and update variables's domains on a single row, and return false if
-    //a variable's domain is empty
-    public static boolean updateRow(int rowNumber, Integer[][] assignment, Pos[][] variableArray) {
-        ArrayList<Integer> assignedValues = new ArrayList<>();
-        for(int col = 0; col < Program.COL; col++) {
-            if(assignment[rowNumber][col] != 0) {
-                assignedValues.add(assignment[rowNumber][col]);
-            }
-        }
-        if(!assignedValues.isEmpty()) {
-            for(int col = 0; col < Program.COL; col++) {
-                if(!variableArray[rowNumber][col].isAssigned) {
-                    variableArray[rowNumber][col].domain.removeAll(assignedValues);
-                    if(variableArray[rowNumber][col].domain.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
-    }
+    //Make an assignment {var = value}
+    public static void makeAssignment(int row, int col, Integer value, Integer[][] assignment, Pos[][] variableArray) {
+        variableArray[row][col].isAssigned = true;
+        variableArray[row][col].value = value;
+        variableArray[row][col].domain = Domain.EMPTY;
+        assignment[row][col] = value;
 
-    //Helper function for forward checking. Check and update variables's domains on a single column, and return false if
-    //a variable's domain is empty
-    public static boolean updateCol(int colNumber, Integer[][] assignment, Pos[][] variableArray) {
-        ArrayList<Integer> assignedValues = new ArrayList<>();
-        for(int row = 0; row < Program.ROW; row++) {
-            if(assignment[row][colNumber] != 0) {
-                assignedValues.add(assignment[row][colNumber]);
-            }
-        }
-        if(!assignedValues.isEmpty()) {
-            for(int row = 0; row < Program.ROW; row++) {
-                if(!variableArray[row][colNumber].isAssigned) {
-                    variableArray[row][colNumber].domain.removeAll(assignedValues);
-                    if(variableArray[row][colNumber].domain.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
     }
 
-    //Helper function for forward checking. Check and update variables's domains in an area, and return false if
-    //a variable's domain is empty
-    public static boolean updateArea(int topLeftRow, int topLeftCol, Integer[][] assignment, Pos[][] variableArray) {
-        ArrayList<Integer> assignedValues = new ArrayList<>();
-        for(int row = topLeftRow; row < topLeftRow + Program.ROW/3; row++) {
-            for(int col = topLeftCol; col < topLeftCol + Program.COL/3; col++) {
-                if(assignment[row][col] != 0) {
-                    assignedValues.add(assignment[row][col]);
-                }
-            }
-        }
-        if(!assignedValues.isEmpty()) {
-            for(int row = topLeftRow; row < topLeftRow + Program.ROW/3; row++) {
-                for(int col = topLeftCol; col < topLeftCol + Program.COL/3; col++) {
-                    if(!variableArray[row][col].isAssigned) {
-                        variableArray[row][col].domain.removeAll(assignedValues);
-                        if(variableArray[row][col].domain.isEmpty()) {
-                            return false;
-                        }
-                    }
-                }
-            }
+    //Remove an assignment
+    public static boolean removeAssignment(int row, int col, Integer[][] assignment, Pos[][] variableArray, int domain) {
+        if(variableArray[row][col].isAssigned) {
+            variableArray[row][col].isAssigned = false;
+            variableArray[row][col].value = null;
+            variableArray[row][col].domain = domain;
+            assignment[row][col] = 0;
+            return true;
         }
-        return true;
+        System.out.println("removeAssignment: failed");
+        return false;
     }
-}
-
-//The class acts like a toolbox, provides heuristic and other functions
-class Heuristic {
 
-    //Select the next unassigned variable in variableArray
-    public static Pos selectUnassignedVariable(Pos[][] variableArray) {
-        ArrayList<Pos> result = minimumRemainingValue(variableArray);
-        if(result.size() == 0) {
-            System.out.println("oops, something went wrong");
-            return null;
+    //Count the solutions of the flat board with the same heuristics, inference and rules as search(), stopping once
+    //limit of them are found. The first solution is copied to the board's solution array, and the board is left as it
+    //was given
+    public static int countSolutions(Board board, int limit) {
+        int mark = board.trailSize;
+        int count = 0;
+        if((board.propagation != Propagation.AC3 || Constraint.arcConsistency(board))
+                && (board.rules == null || board.rules.propagate(board))) {
+            count = countAlgorithm(board, limit, 0);
+        }
+        board.undoTo(mark);
+        return count;
+    }
 
+    //The backtrack algorithm going on after each solution instead of stopping. found is the number of solutions found
+    //before this call; return the number found below it, never taking the total past limit. Stops early once the
+    //board's stop flag is set
+    public static int countAlgorithm(Board board, int limit, int found) {
+        if(board.stats != null) {
+            board.stats.nodes++;
         }
-        if(result.size() == 1) {
-            return result.get(0);
-        }
-        else {
-            result = degreeHeuristic(result, variableArray);
-            if(result.size() == 0) {
-                System.out.println("oops, something went wrong");
-                return null;
-
-            }
-            else {
-                return result.get(0);
+        if(isComplete(board)) {
+            if(found == 0) {
+                System.arraycopy(board.cells, 0, board.solution, 0, Board.SIZE);
             }
+            return 1;
         }
-    }
-
-    //Return an ArrayList<Pos> of candidates which have the minimun domain size
-    public static ArrayList<Pos> minimumRemainingValue(Pos[][] variableArray) {
-        ArrayList<Pos> candidates = new ArrayList<>();
-        int minDomainSize = Program.DOMAIN;
-        for(int row = 0; row < Program.ROW; row++) {
-            for(int col = 0; col < Program.COL; col++) {
-                if(!variableArray[row][col].isAssigned && variableArray[row][col].domain.size() < minDomainSize){
-                    minDomainSize = variableArray[row][col].domain.size();
-                }
-            }
+        int count = 0;
+        if(board.stop != null && board.stop.get()) {
+            return count;
         }
-        for(int row = 0; row < Program.ROW; row++) {
-            for(int col = 0; col < Program.COL; col++) {
-                if(!variableArray[row][col].isAssigned && variableArray[row][col].domain.size() == minDomainSize){
-                    candidates.add(variableArray[row][col]);
+        int curr = selectVariable(board);
+        for(long order = Heuristic.orderValues(board, curr); order != 0 && found + count < limit;
+                order >>>= Heuristic.VALUE_BITS) {
+            int value = (int) (order & Heuristic.VALUE_MASK);
+            if(Constraint.isConsistent(board, curr, value)) {
+                int mark = board.trailSize;
+                makeAssignment(curr, value, board);
+                if(infer(board, curr, value)) {
+                    count += countAlgorithm(board, limit, found + count);
                 }
+                board.undoTo(mark);
+                removeAssignment(curr, board);
             }
         }
-        return candidates;
+        return count;
     }
 
-    //Return an ArrayList<Pos> of candidates which have the most unassigned neighbors among the candidates returned by MRV
-    public static ArrayList<Pos> degreeHeuristic(ArrayList<Pos> candidates, Pos[][] variableArray) {
-        ArrayList<Pos> superCandidates = new ArrayList<>();
-        int maxUnassignedNeighbor = 0;
-        for(Pos p : candidates) {
-            int n = countUnassignedNeighbors(p, variableArray);
-            if(n > maxUnassignedNeighbor) {
-                maxUnassignedNeighbor = n;
-            }
-        }
-        for(Pos p : candidates) {
-            if(countUnassignedNeighbors(p, variableArray) == maxUnassignedNeighbor) {
-                superCandidates.add(p);
-            }
+    //Helper function for the search on the flat board. Select the next cell, timing it if the board collects
+    //statistics
+    public static int selectVariable(Board board) {
+        if(board.stats == null) {
+            return Heuristic.selectUnassignedVariable(board);
         }
-        return superCandidates;
+        long start = System.nanoTime();
+        int cell = Heuristic.selectUnassignedVariable(board);
+        board.stats.selectNanos += System.nanoTime() - start;
+        return cell;
     }
 
-    //Helper function for degreeHeuristic. Return the number of unassigned neighbor of a variable
-    public static int countUnassignedNeighbors(Pos variable, Pos[][] variableArray) {
-        if(variable.isAssigned) {
-            return -1;
-        }
-        HashSet<Pos> checkDup = new HashSet<>();
-        int unassignedNeighbors = 0;
-        int targetRow = variable.row;
-        int targetCol = variable.col;
-        //Row check
-        for(int col = 0; col < Program.COL; col++) {
-            if(variableArray[targetRow][col] != variable && !variableArray[targetRow][col].isAssigned) {
-                unassignedNeighbors++;
-                checkDup.add(variableArray[targetRow][col]);
-            }
-        }
-        //Col check
-        for(int row = 0; row < Program.ROW; row++) {
-            if(variableArray[row][targetCol] != variable && !variableArray[row][targetCol].isAssigned) {
-                unassignedNeighbors++;
-                checkDup.add(variableArray[row][targetCol]);
-            }
-        }
-        //Find its belonging non-overlapping area and area check
-        if(targetRow < 3) {
-            // #1
-            if(targetCol < 3) {
-                for(int row = 0; row < 3; row++) {
-                    for(int col = 0; col < 3; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-            }
-            // #2
-            if(targetCol >= 3 && targetCol < 6) {
-                for(int row = 0; row < 3; row++) {
-                    for(int col = 3; col < 6; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-            }
-            // #3
-            if(targetCol >= 6) {
-                for(int row = 0; row < 3; row++) {
-                    for(int col = 6; col < 9; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
+    //Helper function for the search on the flat board. Run the inference after {cell = value} and then the rules, if
+    //any, timing them if the board collects statistics. Return false if a domain is wiped out
+    public static boolean infer(Board board, int cell, int value) {
+        if(board.stats == null) {
+            return Constraint.inference(board, cell, value) && (board.rules == null || board.rules.propagate(board));
+        }
+        long start = System.nanoTime();
+        boolean consistent = Constraint.inference(board, cell, value)
+                && (board.rules == null || board.rules.propagate(board));
+        board.stats.inferenceNanos += System.nanoTime() - start;
+        return consistent;
+    }
 
+    //Make an assignment {cell = value} on the flat board
+    public static void makeAssignment(int cell, int value, Board board) {
+        board.assign(cell, value);
+        if(board.stats != null) {
+            board.stats.depth++;
+            board.stats.maxDepth = Math.max(board.stats.maxDepth, board.stats.depth);
         }
+    }
 
-        if(targetRow >= 3 && targetRow < 6) {
-            // #4
-            if(targetCol < 3) {
-                for(int row = 3; row < 6; row++) {
-                    for(int col = 0; col < 3; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
-            // #5
-            if(targetCol >= 3 && targetCol < 6) {
-                for(int row = 3; row < 6; row++) {
-                    for(int col = 3; col < 6; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
-            // #6
-            if(targetCol >= 6) {
-                for(int row = 3; row < 6; row++) {
-                    for(int col = 6; col < 9; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
+    //Remove an assignment from the flat board
+    public static void removeAssignment(int cell, Board board) {
+        board.unassign(cell);
+        if(board.stats != null) {
+            board.stats.depth--;
+            board.stats.backtracks++;
         }
+    }
 
-        if(targetRow >= 6) {
-            // #7
-            if(targetCol <= 2) {
-                for(int row = 6; row < 9; row++) {
-                    for(int col = 0; col < 3; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
-            // #8
-            if(targetCol >= 3 && targetCol < 6) {
-                for(int row = 6; row < 9; row++) {
-                    for(int col = 3; col < 6; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
-            // #9
-            if(targetCol >= 6) {
-                for(int row = 6; row < 9; row++) {
-                    for(int col = 6; col < 9; col++) {
-                        if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                            unassignedNeighbors++;
-                        }
-                    }
-                }
-
-            }
-
-        }
-        //Find its belonging overlapping area and area check
-        // #1
-        if(targetRow >= 1 && targetRow < 4 && targetCol >= 1 && targetCol < 4) {
-            for(int row = 1; row < 4; row++) {
-                for(int col = 1; col < 4; col++) {
-                    if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                        unassignedNeighbors++;
-                    }
-                }
-            }
-        }
-        // #2
-        if(targetRow >= 1 && targetRow < 4 && targetCol >= 5 && targetCol < 8) {
-            for(int row = 1; row < 4; row++) {
-                for(int col = 5; col < 8; col++) {
-                    if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                        unassignedNeighbors++;
-                    }
-                }
-            }
-        }
-        // #3
-        if(targetRow >= 5 && targetRow < 8 && targetCol >= 1 && targetCol < 4) {
-            for(int row = 5; row < 8; row++) {
-                for(int col = 1; col < 4; col++) {
-                    if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                        unassignedNeighbors++;
-                    }
-                }
-            }
-        }
-        // #4
-        if(targetRow >= 5 && targetRow < 8 && targetCol >= 5 && targetCol < 8) {
-            for(int row = 5; row < 8; row++) {
-                for(int col = 5; col < 8; col++) {
-                    if(variableArray[row][col] != variable && !variableArray[row][col].isAssigned && checkDup.add(variableArray[row][col])) {
-                        unassignedNeighbors++;
-                    }
+    //Check if the game board is completely assigned, i.e. check if all variables are assigned
+    public static boolean isComplete(Integer[][] assignment) {
+        for(int row = 0; row < ROW; row++) {
+            for(int col = 0; col < COL; col++) {
+                if(assignment[row][col] == 0) {
+                    return false;
                 }
             }
         }
-        return unassignedNeighbors;
+        return true;
     }
 
-    //Return a ArrayList<Integer> of ordered values. Default order is increasing order.
-    public static ArrayList<Integer> orderDomainValues(Pos variable) {
-        ArrayList<Integer> result = variable.domain;
-        Collections.sort(result);
-        return result;
+    //Check if the flat board is completely assigned
+    public static boolean isComplete(Board board) {
+        return board.unassigned == 0;
     }
-}
 
+}
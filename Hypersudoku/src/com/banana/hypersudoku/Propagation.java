@@ -0,0 +1,23 @@
+package com.banana.hypersudoku;
+
+//The inference the backtrack algorithm runs after each assignment, selected per run
+enum Propagation {
+
+    //Remove the assigned value from the domains of the cell's neighbors
+    FORWARD_CHECKING,
+
+    //Maintain arc consistency (AC-3) over the inequality constraints between neighbors. Also run once before the search
+    AC3;
+
+    //Return the propagation with the given name: "fc" or "ac3"
+    public static Propagation forName(String name) {
+        switch(name) {
+            case "fc":
+                return FORWARD_CHECKING;
+            case "ac3":
+                return AC3;
+            default:
+                throw new IllegalArgumentException("Unknown propagation: " + name);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.banana.hypersudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//ResultSink collects the outcome of every board of a batch run in one place instead of printing boards to the console
+//and writing one file per board. Records go through one buffered FileChannel, one record per board in the order they
+//are written, and the sink keeps a count of boards and solutions for the summary.
+class ResultSink implements Closeable {
+
+    public enum Mode {
+        //Solve only, write and print nothing per board
+        NONE,
+        //Like NONE; the caller prints the summary
+        SUMMARY,
+        //One LineFormat line per board, LineFormat.NO_SOLUTION if it has none
+        TEXT,
+        //RECORD_SIZE bytes per board, see pack
+        BINARY
+    }
+
+    //81 cells of 4 bits each, the last low nibble unused
+    public static final int RECORD_SIZE = (Board.SIZE + 1) / 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public final Mode mode;
+
+    //null for the modes that write nothing
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final byte[] cells = new byte[Board.SIZE];
+
+    private int boards;
+
+    private int solved;
+
+    private ResultSink(Mode mode, FileChannel channel) {
+        this.mode = mode;
+        this.channel = channel;
+        this.buffer = channel == null ? null : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    //Open a sink for the mode given by name, case-insensitive. Only TEXT and BINARY create the file
+    public static ResultSink open(String mode, Path path) throws IOException {
+        Mode parsed = Mode.valueOf(mode.toUpperCase());
+        if(parsed == Mode.NONE || parsed == Mode.SUMMARY) {
+            return new ResultSink(parsed, null);
+        }
+        return new ResultSink(parsed, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    //Return true if messages about single boards, such as a board without solution, may be printed next to the sink.
+    //NONE and SUMMARY print nothing per board, TEXT and BINARY leave them on the console. sink may be null for none
+    public static boolean printsBoards(ResultSink sink) {
+        return sink == null || sink.mode == Mode.TEXT || sink.mode == Mode.BINARY;
+    }
+
+    //Return the file name the mode writes to by default
+    public static String defaultName(String mode) {
+        return Program.OUTPUT_PREFIX + (Mode.valueOf(mode.toUpperCase()) == Mode.BINARY ? ".bin" : ".txt");
+    }
+
+    //Record the outcome of the next board: its solution, or null if it has none
+    public synchronized void write(Integer[][] solution) throws IOException {
+        boards++;
+        if(solution != null) {
+            solved++;
+        }
+        if(channel == null) {
+            return;
+        }
+        if(buffer.remaining() < LineFormat.LENGTH + 1) {
+            flush();
+        }
+        if(solution == null) {
+            if(mode == Mode.BINARY) {
+                for(int i = 0; i < RECORD_SIZE; i++) {
+                    buffer.put((byte) 0);
+                }
+            }
+            else {
+                for(int i = 0; i < LineFormat.NO_SOLUTION.length(); i++) {
+                    buffer.put((byte) LineFormat.NO_SOLUTION.charAt(i));
+                }
+                buffer.put((byte) '\n');
+            }
+        }
+        else {
+            for(int cell = 0; cell < Board.SIZE; cell++) {
+                cells[cell] = solution[Topology.ROW_OF[cell]][Topology.COL_OF[cell]].byteValue();
+            }
+            if(mode == Mode.BINARY) {
+                pack(cells, buffer);
+            }
+            else {
+                for(int cell = 0; cell < Board.SIZE; cell++) {
+                    buffer.put((byte) ('0' + cells[cell]));
+                }
+                buffer.put((byte) '\n');
+            }
+        }
+    }
+
+    public synchronized int boards() {
+        return boards;
+    }
+
+    public synchronized int solved() {
+        return solved;
+    }
+
+    //Put 81 cell values into out as RECORD_SIZE bytes: cell 2i in the high nibble of byte i and cell 2i + 1 in the low
+    //nibble. A solved board has no 0 cell, so a record of zeros stands for a board without solution
+    public static void pack(byte[] values, ByteBuffer out) {
+        for(int cell = 0; cell < Board.SIZE; cell += 2) {
+            int low = cell + 1 < Board.SIZE ? values[cell + 1] : 0;
+            out.put((byte) (values[cell] << 4 | low));
+        }
+    }
+
+    //Read one record written by pack from in into 81 cell values. Return false if it is the record of a board without
+    //solution. Mapping the file and calling this in a loop reads results back without any parsing
+    public static boolean unpack(ByteBuffer in, byte[] values) {
+        for(int cell = 0; cell < Board.SIZE; cell += 2) {
+            int b = in.get();
+            values[cell] = (byte) (b >> 4 & 0xF);
+            if(cell + 1 < Board.SIZE) {
+                values[cell + 1] = (byte) (b & 0xF);
+            }
+        }
+        return values[0] != 0;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(channel != null) {
+            flush();
+            channel.close();
+        }
+    }
+}
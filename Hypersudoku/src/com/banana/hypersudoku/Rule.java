@@ -0,0 +1,17 @@
+package com.banana.hypersudoku;
+
+//A propagation rule run by RulePropagator. Every unit of Topology counts, so the four overlapping areas are full units
+//for each rule just like rows, columns and non-overlapping areas. A rule keeps no state of its own, so the same
+//instance can run on several boards at once.
+interface Rule {
+
+    //Returned by apply when the board has no solution
+    int CONTRADICTION = -1;
+
+    //Name reported next to the rule's hit counter
+    String name();
+
+    //Apply the rule once over the whole board, logging every change on the board's trail. Return the number of changes
+    //made, or CONTRADICTION if a domain is wiped out or a value has no place left in a unit
+    int apply(Board board);
+}
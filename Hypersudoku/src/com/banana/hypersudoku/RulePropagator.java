@@ -0,0 +1,78 @@
+package com.banana.hypersudoku;
+
+//RulePropagator runs a list of rules to fixpoint on a board and counts how many changes each rule made. Rules are
+//tried in order, and after any change it starts over from the first one, so cheap rules should come first. The
+//counters are not synchronized: a search running on several threads forks one propagator per thread.
+class RulePropagator {
+
+    private final Rule[] rules;
+
+    //Number of changes made by each rule so far
+    private final long[] hits;
+
+    public RulePropagator(Rule... rules) {
+        this.rules = rules;
+        this.hits = new long[rules.length];
+    }
+
+    //The default rules, cheapest first
+    public static RulePropagator standard() {
+        return new RulePropagator(new NakedSingle(), new HiddenSingle(), new HiddenPair(), new NakedSubset(),
+                new Intersection());
+    }
+
+    //Apply the rules until none of them changes the board. Return false if a rule finds a contradiction
+    public boolean propagate(Board board) {
+        int i = 0;
+        while(i < rules.length) {
+            int changes = rules[i].apply(board);
+            if(changes == Rule.CONTRADICTION) {
+                return false;
+            }
+            if(changes > 0) {
+                hits[i] += changes;
+                i = 0;
+            }
+            else {
+                i++;
+            }
+        }
+        return true;
+    }
+
+    //Return a propagator running the same rules with its own counters, for another thread
+    public RulePropagator fork() {
+        return new RulePropagator(rules);
+    }
+
+    //Add the counters of a forked propagator to this one
+    public void merge(RulePropagator other) {
+        for(int i = 0; i < hits.length; i++) {
+            hits[i] += other.hits[i];
+        }
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    public String name(int rule) {
+        return rules[rule].name();
+    }
+
+    public long hits(int rule) {
+        return hits[rule];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < rules.length; i++) {
+            if(i > 0) {
+                builder.append(", ");
+            }
+            builder.append(rules[i].name()).append(": ").append(hits[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.banana.hypersudoku;
+
+import java.util.function.LongUnaryOperator;
+
+//How the backtrack algorithm orders its choices, selected per solve like Propagation. DEFAULT is the order the project
+//asks for: MRV and then the degree heuristic to select a cell, its values in increasing order, ties going to the lowest
+//cell. The other orders are there to cut the few boards whose search runs far longer than the rest.
+class SearchOrder {
+
+    //How the next cell is selected
+    enum Variables {
+
+        //Smallest domain first, then most blank neighbors
+        MRV_DEGREE,
+
+        //Smallest domain size over weighted degree first. Each unit starts with a weight of 1 and gains 1 every time a
+        //domain of one of its cells is wiped out, and a cell's weighted degree adds up the weights of its units that
+        //still have another blank cell. The weights are kept across restarts
+        DOM_WDEG
+    }
+
+    //How the values of the selected cell are ordered
+    enum Values {
+
+        //Increasing order
+        ASCENDING,
+
+        //Least constraining value first: the value found in the fewest domains of the cell's blank neighbors
+        LEAST_CONSTRAINING
+    }
+
+    public static final SearchOrder DEFAULT = new SearchOrder(Variables.MRV_DEGREE, Values.ASCENDING, 0, 0);
+
+    public final Variables variables;
+
+    public final Values values;
+
+    //Nodes allowed to the first run when restarting, 0 for no restarts. Run i is allowed restartUnit * luby(i) nodes,
+    //and ties between cells are then broken at random so each run searches differently
+    public final long restartUnit;
+
+    //Seed of the random tie-breaking, so a run can be repeated
+    public final long seed;
+
+    public SearchOrder(Variables variables, Values values, long restartUnit, long seed) {
+        if(restartUnit < 0) {
+            throw new IllegalArgumentException("Restart unit must not be negative: " + restartUnit);
+        }
+        this.variables = variables;
+        this.values = values;
+        this.restartUnit = restartUnit;
+        this.seed = seed;
+    }
+
+    //Build a search order from names: "mrv" or "wdeg" for the cells, "ascending" or "lcv" for the values
+    public static SearchOrder forNames(String variables, String values, long restartUnit, long seed) {
+        Variables selection;
+        switch(variables) {
+            case "mrv":
+                selection = Variables.MRV_DEGREE;
+                break;
+            case "wdeg":
+                selection = Variables.DOM_WDEG;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown variable order: " + variables);
+        }
+        Values ordering;
+        switch(values) {
+            case "ascending":
+                ordering = Values.ASCENDING;
+                break;
+            case "lcv":
+                ordering = Values.LEAST_CONSTRAINING;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown value order: " + values);
+        }
+        return new SearchOrder(selection, ordering, restartUnit, seed);
+    }
+
+    public boolean isRandomized() {
+        return restartUnit > 0;
+    }
+
+    public boolean isDefault() {
+        return variables == Variables.MRV_DEGREE && values == Values.ASCENDING && restartUnit == 0;
+    }
+
+    //Return the first state of the random tie-breaking for a seed. xorshift needs a state other than 0
+    public static long randomState(long seed) {
+        long state = seed ^ 0x9E3779B97F4A7C15L;
+        return state == 0 ? 1 : state;
+    }
+
+    //Return the state of the random tie-breaking after the given one (xorshift)
+    public static long nextRandomState(long state) {
+        state ^= state << 13;
+        state ^= state >>> 7;
+        state ^= state << 17;
+        return state;
+    }
+
+    //Run a search over and over, run i allowed restartUnit * luby(i) nodes, until a run does not use up its
+    //allowance: it found a solution, searched the whole tree or was stopped. run takes the allowance and returns the
+    //nodes it left unused, negative if it ran out
+    public static void restart(long restartUnit, LongUnaryOperator run) {
+        int i = 1;
+        while(run.applyAsLong(restartUnit * luby(i)) < 0) {
+            i++;
+        }
+    }
+
+    //Return the i-th term of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ..., counting from 1
+    public static long luby(int i) {
+        int k = 1;
+        while((1L << k) - 1 < i) {
+            k++;
+        }
+        while(i != (1L << k) - 1) {
+            i -= (int) (1L << (k - 1)) - 1;
+            k = 1;
+            while((1L << k) - 1 < i) {
+                k++;
+            }
+        }
+        return 1L << (k - 1);
+    }
+}
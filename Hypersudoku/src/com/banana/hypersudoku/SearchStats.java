@@ -0,0 +1,84 @@
+package com.banana.hypersudoku;
+
+//Counters of the work a search does on a Board. They are only collected when the board has a SearchStats set, so a
+//search without one pays a null check per event and nothing else. Like RulePropagator, the counters are not
+//synchronized: a search running on several threads forks one SearchStats per board copy and merges each into the one
+//it was forked from when its part of the search ends.
+public class SearchStats {
+
+    //Calls of the backtrack algorithm
+    public long nodes;
+
+    //Assignments the search undid
+    public long backtracks;
+
+    //Runs of the backtrack algorithm given up on for a restart, see SearchOrder
+    public long restarts;
+
+    //Levels skipped by conflict-directed backjumping, and nogoods it stored, see ConflictSets
+    public long backjumps;
+    public long nogoods;
+
+    //Calls of Constraint.isConsistent
+    public long consistencyChecks;
+
+    //Domain changes, by forward checking, AC-3 and the rules alike
+    public long prunes;
+
+    //Number of assignments the search has made on the current branch, and the most there were on any branch
+    public int depth;
+    public int maxDepth;
+
+    //Time spent selecting variables (MRV and the degree heuristic run as one pass) and in inference, that is forward
+    //checking or AC-3 followed by the rules, if any
+    public long selectNanos;
+    public long inferenceNanos;
+
+    //The SearchStats the counters are merged into, null for one that was not forked
+    private final SearchStats root;
+
+    public SearchStats() {
+        this(null);
+    }
+
+    private SearchStats(SearchStats root) {
+        this.root = root;
+    }
+
+    //Return empty counters for a copy of the board, starting at the current depth
+    public SearchStats fork() {
+        SearchStats fork = new SearchStats(root == null ? this : root);
+        fork.depth = depth;
+        fork.maxDepth = depth;
+        return fork;
+    }
+
+    //Add the counters of a forked SearchStats to the one it was forked from. May be called from any thread
+    public void mergeIntoRoot() {
+        synchronized(root) {
+            root.merge(this);
+        }
+    }
+
+    //Add another SearchStats to this one
+    public void merge(SearchStats other) {
+        nodes += other.nodes;
+        backtracks += other.backtracks;
+        restarts += other.restarts;
+        backjumps += other.backjumps;
+        nogoods += other.nogoods;
+        consistencyChecks += other.consistencyChecks;
+        prunes += other.prunes;
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+        selectNanos += other.selectNanos;
+        inferenceNanos += other.inferenceNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Search: %d nodes, %d backtracks, %d restarts, %d levels backjumped, %d nogoods, "
+                        + "%d consistency checks, %d prunes, max depth %d, %.3f ms selecting, %.3f ms in inference",
+                nodes, backtracks, restarts, backjumps, nogoods, consistencyChecks, prunes, maxDepth,
+                selectNanos / 1e6, inferenceNanos / 1e6);
+    }
+}
@@ -0,0 +1,110 @@
+package com.banana.hypersudoku;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//SolutionCache remembers the solutions of recently solved boards, keyed by their canonical form (see Symmetry), so a
+//board that is equivalent to one solved before is answered without a search. It holds at most capacity boards and
+//evicts the least recently used one. It is safe to share between threads.
+public class SolutionCache {
+
+    //Cached for a board that has no solution
+    private static final byte[] NO_SOLUTION = new byte[0];
+
+    //Solves a board given as cells into solution, see Solver.solve(byte[], byte[])
+    interface Search {
+        boolean solve(byte[] cells, byte[] solution);
+    }
+
+    public final int capacity;
+
+    //Canonical board, one char per cell, to its canonical solution or NO_SOLUTION. In access order, for LRU
+    private final LinkedHashMap<String, byte[]> entries;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    public SolutionCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                if(size() > SolutionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //Solve a board, from the cache if an equivalent board is in it and with search otherwise. Return false if there is no
+    //solution. Two threads missing on the same board at once both search; the second result simply replaces the first
+    public boolean solve(byte[] cells, byte[] solution, Search search) {
+        byte[] canonical = new byte[Board.SIZE];
+        Symmetry symmetry = Symmetry.canonicalize(cells, canonical);
+        String key = new String(canonical, StandardCharsets.ISO_8859_1);
+        byte[] cached = get(key);
+        if(cached != null) {
+            if(cached == NO_SOLUTION) {
+                return false;
+            }
+            symmetry.fromCanonical(cached, solution);
+            return true;
+        }
+        boolean solved = search.solve(cells, solution);
+        byte[] value = NO_SOLUTION;
+        if(solved) {
+            value = new byte[Board.SIZE];
+            symmetry.toCanonical(solution, value);
+        }
+        put(key, value);
+        return solved;
+    }
+
+    private synchronized byte[] get(String key) {
+        byte[] value = entries.get(key);
+        if(value == null) {
+            misses++;
+        }
+        else {
+            hits++;
+        }
+        return value;
+    }
+
+    private synchronized void put(String key, byte[] value) {
+        entries.put(key, value);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Cache: %d of %d boards, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                entries.size(), capacity, hits, misses, 100 * hitRate(), evictions);
+    }
+}
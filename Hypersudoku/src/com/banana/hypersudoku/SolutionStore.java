@@ -0,0 +1,253 @@
+package com.banana.hypersudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+//SolutionStore keeps solved boards in a file, so they survive a restart. The file is a header followed by records that
+//are only ever appended: the board and its solution, each packed into ResultSink.RECORD_SIZE bytes (see
+//ResultSink.pack), and a CRC32 of both. A solution of zeros means the board has no solution.
+//
+//The index lives in memory and is rebuilt by reading the file when the store is opened. It is an open-addressing hash
+//table of record offsets and board hashes only; the boards themselves are read from the file to confirm a match. A
+//record cut short or damaged by a crash ends the file: it and anything after it are truncated away on open.
+//
+//Lookups take a read lock and read with positional reads, so any number of threads can look up at once; appends take
+//the write lock.
+public class SolutionStore implements Closeable {
+
+    private static final int MAGIC = 0x48535331;
+
+    private static final int HEADER_SIZE = 8;
+
+    public static final int RECORD_SIZE = 2 * ResultSink.RECORD_SIZE + 4;
+
+    private final FileChannel channel;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //Offset of each record plus one, 0 for an empty slot, and the hash of its board. The length is a power of two
+    private long[] offsets = new long[1024];
+    private int[] hashes = new int[1024];
+
+    private int size;
+
+    //Where the next record goes
+    private long end;
+
+    //Bytes dropped from the end of the file when it was opened
+    public final long recoveredBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private SolutionStore(FileChannel channel) throws IOException {
+        this.channel = channel;
+        if(channel.size() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(RECORD_SIZE).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+        }
+        else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if(header.getInt() != MAGIC || header.getInt() != RECORD_SIZE) {
+                throw new IOException("Not a solution store");
+            }
+        }
+        long fileSize = channel.size();
+        end = HEADER_SIZE;
+        load();
+        recoveredBytes = fileSize - end;
+        if(recoveredBytes > 0) {
+            channel.truncate(end);
+        }
+    }
+
+    //Open the store in a file, creating it if it does not exist
+    public static SolutionStore open(Path path) throws IOException {
+        return new SolutionStore(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+    }
+
+    //Helper function for the constructor. Index every intact record, moving end past it
+    private void load() throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        byte[] cells = new byte[Board.SIZE];
+        boolean intact = true;
+        while(intact) {
+            records.clear();
+            int read = 0;
+            int n = 0;
+            while(n >= 0 && records.hasRemaining()) {
+                n = channel.read(records, end + read);
+                read += Math.max(n, 0);
+            }
+            records.flip();
+            while(intact && records.remaining() >= RECORD_SIZE) {
+                int start = records.position();
+                intact = checksum(records, start) == records.getInt(start + 2 * ResultSink.RECORD_SIZE);
+                if(intact) {
+                    ResultSink.unpack(records, cells);
+                    insert(hash(cells), end);
+                    end += RECORD_SIZE;
+                    records.position(start + RECORD_SIZE);
+                }
+            }
+            intact = intact && n >= 0 && read == records.capacity();
+        }
+    }
+
+    //Look a board up. Return true and write its solution if the store knows it has one, false if it knows it has none,
+    //and null if the board is not in the store. solution is only written on true
+    public Boolean get(byte[] cells, byte[] solution) throws IOException {
+        int hash = hash(cells);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        byte[] stored = new byte[Board.SIZE];
+        lock.readLock().lock();
+        try {
+            int mask = offsets.length - 1;
+            for(int slot = hash & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+                if(hashes[slot] == hash) {
+                    record.clear();
+                    channel.read(record, offsets[slot] - 1);
+                    record.flip();
+                    ResultSink.unpack(record, stored);
+                    if(Arrays.equals(stored, cells)) {
+                        hits.incrementAndGet();
+                        if(!ResultSink.unpack(record, stored)) {
+                            return false;
+                        }
+                        System.arraycopy(stored, 0, solution, 0, Board.SIZE);
+                        return true;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    //Append a board and its solution, or null if it has none. A board already in the store is stored again; lookups
+    //find the first record
+    public void put(byte[] cells, byte[] solution) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        ResultSink.pack(cells, record);
+        if(solution == null) {
+            record.put(new byte[ResultSink.RECORD_SIZE]);
+        }
+        else {
+            ResultSink.pack(solution, record);
+        }
+        record.putInt(checksum(record, 0));
+        record.flip();
+        lock.writeLock().lock();
+        try {
+            while(record.hasRemaining()) {
+                channel.write(record, end + record.position());
+            }
+            insert(hash(cells), end);
+            end += RECORD_SIZE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Solve a board from the store if it is in it and with search otherwise, storing the result
+    public boolean solve(byte[] cells, byte[] solution, SolutionCache.Search search) {
+        try {
+            Boolean stored = get(cells, solution);
+            if(stored != null) {
+                return stored;
+            }
+            boolean solved = search.solve(cells, solution);
+            put(cells, solved ? solution : null);
+            return solved;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Helper function for load and put, called with the write lock held or before the store is shared
+    private void insert(int hash, long offset) {
+        if(2 * (size + 1) > offsets.length) {
+            long[] oldOffsets = offsets;
+            int[] oldHashes = hashes;
+            offsets = new long[oldOffsets.length * 2];
+            hashes = new int[oldOffsets.length * 2];
+            for(int slot = 0; slot < oldOffsets.length; slot++) {
+                if(oldOffsets[slot] != 0) {
+                    place(oldHashes[slot], oldOffsets[slot]);
+                }
+            }
+        }
+        place(hash, offset + 1);
+        size++;
+    }
+
+    //Helper function for insert. Put an entry in the first free slot of its probe sequence
+    private void place(int hash, long entry) {
+        int mask = offsets.length - 1;
+        int slot = hash & mask;
+        while(offsets[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        offsets[slot] = entry;
+        hashes[slot] = hash;
+    }
+
+    private static int hash(byte[] cells) {
+        int hash = Arrays.hashCode(cells);
+        return hash ^ (hash >>> 16);
+    }
+
+    //CRC32 of the two packed boards of the record starting at start
+    private static int checksum(ByteBuffer records, int start) {
+        CRC32 crc = new CRC32();
+        for(int i = start; i < start + 2 * ResultSink.RECORD_SIZE; i++) {
+            crc.update(records.get(i));
+        }
+        return (int) crc.getValue();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Store: %d boards, %d hits, %d misses, %d bytes recovered", size(), hits.get(),
+                misses.get(), recoveredBytes);
+    }
+
+    //Flush the records to disk and close the file
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
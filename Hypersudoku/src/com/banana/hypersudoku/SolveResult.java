@@ -0,0 +1,41 @@
+package com.banana.hypersudoku;
+
+//The outcome of one Solver call. Each result has its own solution array that nothing else refers to, so it can be
+//handed to another thread. The array is not copied on access, so a caller that changes it changes the result
+public class SolveResult {
+
+    public enum Status {
+        SOLVED,
+        NO_SOLUTION
+    }
+
+    public final Status status;
+
+    //The solution, or the first one found when counting. null if there is none
+    public final Integer[][] solution;
+
+    //Number of solutions found: 0 or 1 for Solver.solve, up to the limit for Solver.count
+    public final int solutionCount;
+
+    //Wall-clock time spent in the call
+    public final long elapsedNanos;
+
+    //Counters of the search, null unless the Solver collects them. Not to be changed once returned
+    public final SearchStats stats;
+
+    public SolveResult(Integer[][] solution, int solutionCount, long elapsedNanos) {
+        this(solution, solutionCount, elapsedNanos, null);
+    }
+
+    public SolveResult(Integer[][] solution, int solutionCount, long elapsedNanos, SearchStats stats) {
+        this.status = solution != null ? Status.SOLVED : Status.NO_SOLUTION;
+        this.solution = solution;
+        this.solutionCount = solutionCount;
+        this.elapsedNanos = elapsedNanos;
+        this.stats = stats;
+    }
+
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+}
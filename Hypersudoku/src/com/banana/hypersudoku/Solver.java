@@ -0,0 +1,180 @@
+package com.banana.hypersudoku;
+
+import java.util.function.Supplier;
+
+//Solver is the entry point for solving Hyper Sudoku boards from other code. It only holds its configuration: every call
+//works on its own copy of the game board, its own Board and a fresh engine, and returns its outcome as a SolveResult
+//instead of leaving it anywhere shared. One Solver can therefore be used from many threads at once.
+public class Solver {
+
+    //Creates the engine for each call, since engines keep per-search state
+    private final Supplier<Engine> engines;
+
+    //Answers boards equivalent to ones solved before, null for none
+    private final SolutionCache cache;
+
+    //Answers boards solved before, also in earlier runs, null for none. Looked up after the cache
+    private final SolutionStore store;
+
+    //The search counters of every solve so far, null if they are not collected
+    private final SearchStats totals;
+
+    //The backtrack algorithm with forward checking, as the project asks for
+    public Solver() {
+        this("backtrack");
+    }
+
+    //Solve with the engine of the given name, see Engine.forName. An unknown name is refused here rather than on the
+    //first solve
+    public Solver(String engineName) {
+        this(engineName, null, null, false);
+    }
+
+    //Solve with the engine of the given name, looking boards up in the cache and then the store first. Either may be
+    //null, and both may be shared with other solvers. With collectStats set, the search counters of each solve are
+    //returned in its SolveResult and added up in totals(). Only the searches of the backtrack algorithm, also inside
+    //ParallelEngine, are counted
+    public Solver(String engineName, SolutionCache cache, SolutionStore store, boolean collectStats) {
+        this(() -> Engine.forName(engineName), cache, store, collectStats);
+        Engine.check(engineName);
+    }
+
+    //Solve with engines from the given supplier, which must return a new engine on every call. Engine is not public,
+    //so the constructors taking engines are only for this package; other code names the engine instead
+    Solver(Supplier<Engine> engines) {
+        this(engines, null);
+    }
+
+    //Solve with engines from the given supplier, looking boards up in the cache first
+    Solver(Supplier<Engine> engines, SolutionCache cache) {
+        this(engines, cache, null);
+    }
+
+    //Solve with engines from the given supplier, looking boards up in the cache and then the store first
+    Solver(Supplier<Engine> engines, SolutionCache cache, SolutionStore store) {
+        this(engines, cache, store, false);
+    }
+
+    //Same as the constructor taking the engine name, with engines from the given supplier
+    Solver(Supplier<Engine> engines, SolutionCache cache, SolutionStore store, boolean collectStats) {
+        this.engines = engines;
+        this.cache = cache;
+        this.store = store;
+        this.totals = collectStats ? new SearchStats() : null;
+    }
+
+    //Solve a game board. The given board is not modified
+    public SolveResult solve(Integer[][] assignment) {
+        long start = System.nanoTime();
+        SearchStats stats = totals == null ? null : new SearchStats();
+        if(cache != null || store != null) {
+            byte[] cells = new byte[Board.SIZE];
+            byte[] solution = new byte[Board.SIZE];
+            for(int cell = 0; cell < Board.SIZE; cell++) {
+                cells[cell] = assignment[Topology.ROW_OF[cell]][Topology.COL_OF[cell]].byteValue();
+            }
+            boolean solved = solve(cells, solution, stats);
+            Integer[][] board = null;
+            if(solved) {
+                board = new Integer[Program.ROW][Program.COL];
+                for(int cell = 0; cell < Board.SIZE; cell++) {
+                    board[Topology.ROW_OF[cell]][Topology.COL_OF[cell]] = (int) solution[cell];
+                }
+            }
+            return new SolveResult(board, solved ? 1 : 0, System.nanoTime() - start, stats);
+        }
+        Integer[][] board = copyBoard(assignment);
+        Pos[][] variableArray = new Pos[Program.ROW][Program.COL];
+        Program.initializeVar(variableArray, board);
+        boolean solved = Program.backTrack(board, variableArray, engines.get(), stats);
+        addToTotals(stats);
+        return new SolveResult(solved ? board : null, solved ? 1 : 0, System.nanoTime() - start, stats);
+    }
+
+    //Count the solutions of a game board, stopping at limit. A limit of 2 is enough to check that the solution is
+    //unique. The given board is not modified
+    public SolveResult count(Integer[][] assignment, int limit) {
+        long start = System.nanoTime();
+        Integer[][] board = copyBoard(assignment);
+        Pos[][] variableArray = new Pos[Program.ROW][Program.COL];
+        Program.initializeVar(variableArray, board);
+        int count = Program.countSolutions(board, variableArray, engines.get(), limit);
+        return new SolveResult(count > 0 ? board : null, count, System.nanoTime() - start);
+    }
+
+    //Solve a board given as 81 cell values in row order, 0 for a blank cell, and write the solution into solution.
+    //This skips the Integer[][] game board entirely. Return false, leaving solution untouched, if there is none
+    public boolean solve(byte[] cells, byte[] solution) {
+        return solve(cells, solution, totals == null ? null : new SearchStats());
+    }
+
+    //Helper function for the solve methods, collecting the search counters into stats if it is not null
+    private boolean solve(byte[] cells, byte[] solution, SearchStats stats) {
+        boolean solved;
+        if(cache != null) {
+            solved = cache.solve(cells, solution, (c, s) -> searchStore(c, s, stats));
+        }
+        else {
+            solved = searchStore(cells, solution, stats);
+        }
+        addToTotals(stats);
+        return solved;
+    }
+
+    //Helper function for solve, looking the board up in the store
+    private boolean searchStore(byte[] cells, byte[] solution, SearchStats stats) {
+        if(store != null) {
+            return store.solve(cells, solution, (c, s) -> search(c, s, stats));
+        }
+        return search(cells, solution, stats);
+    }
+
+    //Helper function for solve, searching without the cache or store
+    private boolean search(byte[] cells, byte[] solution, SearchStats stats) {
+        Board board = Board.fromCells(cells);
+        board.stats = stats;
+        long start = System.nanoTime();
+        boolean consistent = Constraint.forwardChecking(board);
+        if(stats != null) {
+            stats.inferenceNanos += System.nanoTime() - start;
+        }
+        if(!consistent || !engines.get().solve(board)) {
+            return false;
+        }
+        System.arraycopy(board.cells, 0, solution, 0, Board.SIZE);
+        return true;
+    }
+
+    private void addToTotals(SearchStats stats) {
+        if(stats != null) {
+            synchronized(totals) {
+                totals.merge(stats);
+            }
+        }
+    }
+
+    public SolutionCache cache() {
+        return cache;
+    }
+
+    //Return the sum of the search counters of every solve so far, null if they are not collected
+    public SearchStats totals() {
+        if(totals == null) {
+            return null;
+        }
+        SearchStats copy = new SearchStats();
+        synchronized(totals) {
+            copy.merge(totals);
+        }
+        return copy;
+    }
+
+    //Return a copy of a game board
+    public static Integer[][] copyBoard(Integer[][] assignment) {
+        Integer[][] copy = new Integer[Program.ROW][];
+        for(int row = 0; row < Program.ROW; row++) {
+            copy[row] = assignment[row].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,126 @@
+package com.banana.hypersudoku;
+
+import java.util.Arrays;
+
+//Symmetry is one of the transformations that map every Hyper Sudoku board onto an equivalent one: a reordering of the
+//rows, a reordering of the columns, an optional transpose and a relabeling of the values. A board is solved by the
+//solution mapped with the same transformation, so equivalent boards can share one solution.
+//
+//Rows may only be reordered in ways that keep the three bands of rows together and the rows of each overlap (1-3 and
+//5-7) together, so boxes map to boxes and overlaps to overlaps. That leaves ROW_ORDERS. Columns work the same.
+class Symmetry {
+
+    //Every allowed row (or column) order: new row i is old row ROW_ORDERS[k][i]. Rows 1 and 2 can swap, rows 6 and 7 can
+    //swap, and the whole board can be turned upside down
+    private static final int[][] ROW_ORDERS = {
+            {0, 1, 2, 3, 4, 5, 6, 7, 8},
+            {0, 2, 1, 3, 4, 5, 6, 7, 8},
+            {0, 1, 2, 3, 4, 5, 7, 6, 8},
+            {0, 2, 1, 3, 4, 5, 7, 6, 8},
+            {8, 7, 6, 5, 4, 3, 2, 1, 0},
+            {8, 6, 7, 5, 4, 3, 2, 1, 0},
+            {8, 7, 6, 5, 4, 3, 1, 2, 0},
+            {8, 6, 7, 5, 4, 3, 1, 2, 0}
+    };
+
+    //Every reordering of the cells: cell i of the transformed board is cell CELL_MAPS[t][i] of the original
+    public static final int[][] CELL_MAPS = new int[ROW_ORDERS.length * ROW_ORDERS.length * 2][Board.SIZE];
+
+    static {
+        int t = 0;
+        for(int[] rows : ROW_ORDERS) {
+            for(int[] cols : ROW_ORDERS) {
+                for(int transpose = 0; transpose < 2; transpose++) {
+                    for(int cell = 0; cell < Board.SIZE; cell++) {
+                        int row = rows[Topology.ROW_OF[cell]];
+                        int col = cols[Topology.COL_OF[cell]];
+                        CELL_MAPS[t][cell] = transpose == 0 ? Topology.index(row, col) : Topology.index(col, row);
+                    }
+                    t++;
+                }
+            }
+        }
+    }
+
+    //Index into CELL_MAPS
+    private final int transform;
+
+    //New value of each old value, and the reverse. Index 0 stays 0 for blank cells
+    private final byte[] relabel = new byte[Program.DOMAIN + 1];
+    private final byte[] inverse = new byte[Program.DOMAIN + 1];
+
+    private Symmetry(int transform) {
+        this.transform = transform;
+    }
+
+    //Find the canonical form of a board, the smallest of all its transformed boards when values are relabeled in the
+    //order they first appear. Equivalent boards have the same canonical form. Write it to key and return the
+    //transformation that produced it
+    public static Symmetry canonicalize(byte[] cells, byte[] key) {
+        byte[] candidate = new byte[Board.SIZE];
+        byte[] labels = new byte[Program.DOMAIN + 1];
+        int best = -1;
+        for(int t = 0; t < CELL_MAPS.length; t++) {
+            relabelInto(cells, CELL_MAPS[t], candidate, labels);
+            if(best < 0 || compare(candidate, key) < 0) {
+                System.arraycopy(candidate, 0, key, 0, Board.SIZE);
+                best = t;
+            }
+        }
+        Symmetry symmetry = new Symmetry(best);
+        relabelInto(cells, CELL_MAPS[best], candidate, symmetry.relabel);
+        //Values missing from the board get the labels left over, so the relabeling stays one to one
+        int next = 1;
+        for(int value = 1; value <= Program.DOMAIN; value++) {
+            if(symmetry.relabel[value] != 0) {
+                next++;
+            }
+        }
+        for(int value = 1; value <= Program.DOMAIN; value++) {
+            if(symmetry.relabel[value] == 0) {
+                symmetry.relabel[value] = (byte) next++;
+            }
+        }
+        for(int value = 1; value <= Program.DOMAIN; value++) {
+            symmetry.inverse[symmetry.relabel[value]] = (byte) value;
+        }
+        return symmetry;
+    }
+
+    //Map a board of the original orientation, such as a solution, to the canonical one
+    public void toCanonical(byte[] values, byte[] out) {
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            out[cell] = relabel[values[CELL_MAPS[transform][cell]]];
+        }
+    }
+
+    //Map a board of the canonical orientation back to the original one
+    public void fromCanonical(byte[] values, byte[] out) {
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            out[CELL_MAPS[transform][cell]] = inverse[values[cell]];
+        }
+    }
+
+    //Helper function for canonicalize. Write the board reordered by map to out, relabeling values in the order they
+    //first appear, and record the labels used
+    private static void relabelInto(byte[] cells, int[] map, byte[] out, byte[] labels) {
+        Arrays.fill(labels, (byte) 0);
+        byte next = 1;
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            int value = cells[map[cell]];
+            if(value != 0 && labels[value] == 0) {
+                labels[value] = next++;
+            }
+            out[cell] = labels[value];
+        }
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        for(int i = 0; i < a.length; i++) {
+            if(a[i] != b[i]) {
+                return a[i] - b[i];
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.banana.hypersudoku;
+
+//Topology holds the static structure of the Hyper Sudoku board: the 9 rows, 9 columns, 9 non-overlapping areas and
+//4 overlapping areas (31 units of 9 cells each), the units each cell belongs to, and each cell's neighbors. Cells are
+//flat indexes as in Board. The unit and peer tables are those of Geometry.hyper(3); all tables are computed once when
+//the class is loaded and never change afterwards.
+class Topology {
+
+    public static final int SIZE = Program.ROW * Program.COL;
+
+    public static final int AREA_SIZE = 3;
+
+    //Top-left corners of the four overlapping areas
+    public static final int[][] OVERLAP_CORNERS = {{1, 1}, {1, 5}, {5, 1}, {5, 5}};
+
+    //Marks a cell that is not inside any overlapping area
+    public static final int NO_OVERLAP = -1;
+
+    //Unit numbering in UNITS: rows first, then columns, non-overlapping areas and overlapping areas
+    public static final int FIRST_ROW = 0;
+    public static final int FIRST_COL = FIRST_ROW + Program.ROW;
+    public static final int FIRST_AREA = FIRST_COL + Program.COL;
+    public static final int FIRST_OVERLAP = FIRST_AREA + Program.DOMAIN;
+    public static final int UNIT_COUNT = FIRST_OVERLAP + OVERLAP_CORNERS.length;
+
+    //Cell -> unit index tables. Non-overlapping areas are numbered #1-#9 (0-8) from left to right and top to bottom,
+    //overlapping areas #1-#4 (0-3) in the same order as OVERLAP_CORNERS
+    public static final int[] ROW_OF = new int[SIZE];
+    public static final int[] COL_OF = new int[SIZE];
+    public static final int[] AREA_OF = new int[SIZE];
+    public static final int[] OVERLAP_OF = new int[SIZE];
+
+    //The regions of the board and the tables compiled from them, see Geometry
+    public static final Geometry GEOMETRY = Geometry.hyper(AREA_SIZE);
+
+    //Unit -> cells
+    public static final int[][] UNITS = GEOMETRY.units;
+
+    //Cell -> the units it belongs to, 3 or 4 of them
+    public static final int[][] CELL_UNITS = GEOMETRY.cellUnits;
+
+    //Unit -> cell -> whether the cell belongs to the unit
+    public static final boolean[][] IN_UNIT = new boolean[UNIT_COUNT][SIZE];
+
+    //Cell -> every other cell sharing at least one unit with it, each listed once
+    public static final int[][] PEERS = GEOMETRY.peers;
+
+    static {
+        for(int cell = 0; cell < SIZE; cell++) {
+            int row = cell / Program.COL;
+            int col = cell % Program.COL;
+            ROW_OF[cell] = row;
+            COL_OF[cell] = col;
+            AREA_OF[cell] = (row / AREA_SIZE) * AREA_SIZE + col / AREA_SIZE;
+            OVERLAP_OF[cell] = NO_OVERLAP;
+            for(int overlap = 0; overlap < OVERLAP_CORNERS.length; overlap++) {
+                int topLeftRow = OVERLAP_CORNERS[overlap][0];
+                int topLeftCol = OVERLAP_CORNERS[overlap][1];
+                if(row >= topLeftRow && row < topLeftRow + AREA_SIZE && col >= topLeftCol && col < topLeftCol + AREA_SIZE) {
+                    OVERLAP_OF[cell] = overlap;
+                }
+            }
+            for(int unit : CELL_UNITS[cell]) {
+                IN_UNIT[unit][cell] = true;
+            }
+        }
+    }
+
+    //Return the flat index of a position on the game board
+    public static int index(int row, int col) {
+        return row * Program.COL + col;
+    }
+}
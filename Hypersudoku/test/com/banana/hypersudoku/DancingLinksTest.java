@@ -0,0 +1,31 @@
+package com.banana.hypersudoku;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DancingLinksTest {
+
+    //With the overlapping areas left out of column selection, this ran for minutes
+    @Test(timeout = 10000)
+    public void solvesEmptyBoard() {
+        Integer[][] empty = new Integer[Program.ROW][Program.COL];
+        Program.fillZero(empty);
+        SolveResult result = new Solver("dlx").solve(empty);
+        assertTrue(result.isSolved());
+        assertTrue(Constraint.isValid(result.solution));
+    }
+
+    @Test
+    public void countsLikeBacktrack() throws IOException {
+        for(String name : new String[]{"Input1", "Input2", "Input3"}) {
+            Integer[][] assignment = Program.readBoard(Paths.get("../INPUT/" + name + ".txt"));
+            assertEquals(name, new Solver("backtrack").count(assignment, 2).solutionCount,
+                    new Solver("dlx").count(assignment, 2).solutionCount);
+        }
+    }
+}
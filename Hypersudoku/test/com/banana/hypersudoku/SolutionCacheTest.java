@@ -0,0 +1,72 @@
+package com.banana.hypersudoku;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SolutionCacheTest {
+
+    private static final SolutionCache.Search FAIL = (cells, solution) -> {
+        throw new AssertionError("searched a cached board");
+    };
+
+    //True if solution is complete, valid and keeps every given of cells
+    private static boolean solves(byte[] solution, byte[] cells) {
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            if(cells[cell] != 0 && cells[cell] != solution[cell]) {
+                return false;
+            }
+        }
+        return Constraint.isValid(SymmetryTest.assignment(solution));
+    }
+
+    //After one search, every equivalent board is answered from the cache with its own solution
+    @Test
+    public void answersEquivalentBoards() throws IOException {
+        Solver solver = new Solver();
+        SolutionCache cache = new SolutionCache(16);
+        byte[] cells = SymmetryTest.readCells("Input1");
+        byte[] solution = new byte[Board.SIZE];
+        assertTrue(cache.solve(cells, solution, solver::solve));
+        assertTrue(solves(solution, cells));
+        for(int t = 0; t < Symmetry.CELL_MAPS.length; t++) {
+            byte[] other = SymmetryTest.transform(cells, t);
+            assertTrue("transform " + t, cache.solve(other, solution, FAIL));
+            assertTrue("transform " + t, solves(solution, other));
+        }
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.misses());
+        assertEquals(Symmetry.CELL_MAPS.length, cache.hits());
+    }
+
+    @Test
+    public void remembersBoardsWithoutSolution() throws IOException {
+        SolutionCache cache = new SolutionCache(16);
+        byte[] cells = SymmetryTest.readCells("Input2");
+        byte[] solution = new byte[Board.SIZE];
+        assertFalse(cache.solve(cells, solution, (c, s) -> false));
+        assertFalse(cache.solve(SymmetryTest.transform(cells, 5), solution, FAIL));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        Solver solver = new Solver();
+        SolutionCache cache = new SolutionCache(2);
+        byte[] solution = new byte[Board.SIZE];
+        byte[] first = SymmetryTest.readCells("Input1");
+        byte[] second = SymmetryTest.readCells("Input2");
+        byte[] third = SymmetryTest.readCells("Input3");
+        cache.solve(first, solution, solver::solve);
+        cache.solve(second, solution, solver::solve);
+        cache.solve(first, solution, FAIL);
+        cache.solve(third, solution, solver::solve);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        cache.solve(first, solution, FAIL);
+        cache.solve(third, solution, FAIL);
+    }
+}
@@ -0,0 +1,156 @@
+package com.banana.hypersudoku;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SolutionStoreTest {
+
+    //Where the records start, after the magic number and the record size
+    private static final int HEADER_SIZE = 8;
+
+    //More boards than the first index table holds, so it has to grow
+    private static final int BOARDS = 700;
+
+    //Board k has the single given 1 + k / 81 in cell k % 81, so no two boards are the same
+    private static byte[] board(int k) {
+        byte[] cells = new byte[Board.SIZE];
+        cells[k % Board.SIZE] = (byte) (1 + k / Board.SIZE);
+        return cells;
+    }
+
+    //Any digits do; the store does not check solutions
+    private static byte[] solution(int k) {
+        byte[] solution = new byte[Board.SIZE];
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            solution[cell] = (byte) ((k + cell) % 9 + 1);
+        }
+        return solution;
+    }
+
+    //Store boards 0 to count - 1 in a new file. Every tenth one is stored as having no solution
+    private static Path storeBoards(int count) throws IOException {
+        Path path = Files.createTempFile("store", ".bin");
+        try (SolutionStore store = SolutionStore.open(path)) {
+            for(int k = 0; k < count; k++) {
+                store.put(board(k), k % 10 == 0 ? null : solution(k));
+            }
+        }
+        return path;
+    }
+
+    //Boards 0 to count - 1 are found with the solution they were stored with, and board count is not found
+    private static void assertBoards(SolutionStore store, int count) throws IOException {
+        byte[] solution = new byte[Board.SIZE];
+        for(int k = 0; k < count; k++) {
+            Boolean stored = store.get(board(k), solution);
+            if(k % 10 == 0) {
+                assertEquals("board " + k, Boolean.FALSE, stored);
+            }
+            else {
+                assertEquals("board " + k, Boolean.TRUE, stored);
+                assertArrayEquals("board " + k, solution(k), solution);
+            }
+        }
+        assertNull(store.get(board(count), solution));
+    }
+
+    @Test
+    public void findsBoardsAfterReopening() throws IOException {
+        Path path = storeBoards(BOARDS);
+        try (SolutionStore store = SolutionStore.open(path)) {
+            assertEquals(BOARDS, store.size());
+            assertEquals(0, store.recoveredBytes);
+            assertBoards(store, BOARDS);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    //A crash in the middle of an append leaves part of a record at the end. Reopening drops it and appends after the
+    //last whole record
+    @Test
+    public void dropsCutRecordOnReopen() throws IOException {
+        Path path = storeBoards(3);
+        try {
+            long whole = Files.size(path);
+            assertEquals(HEADER_SIZE + 3 * SolutionStore.RECORD_SIZE, whole);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(whole - 5);
+            }
+            try (SolutionStore store = SolutionStore.open(path)) {
+                assertEquals(2, store.size());
+                assertEquals(SolutionStore.RECORD_SIZE - 5, store.recoveredBytes);
+                assertBoards(store, 2);
+                store.put(board(2), solution(2));
+            }
+            assertEquals(whole, Files.size(path));
+            try (SolutionStore store = SolutionStore.open(path)) {
+                assertEquals(0, store.recoveredBytes);
+                assertBoards(store, 3);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    //A record whose checksum does not match ends the file, even if whole records follow it
+    @Test
+    public void dropsDamagedRecordAndRestOnReopen() throws IOException {
+        Path path = storeBoards(3);
+        try {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long offset = HEADER_SIZE + SolutionStore.RECORD_SIZE + ResultSink.RECORD_SIZE + 3;
+                ByteBuffer b = ByteBuffer.allocate(1);
+                channel.read(b, offset);
+                b.put(0, (byte) (b.get(0) ^ 0x11));
+                b.rewind();
+                channel.write(b, offset);
+            }
+            try (SolutionStore store = SolutionStore.open(path)) {
+                assertEquals(1, store.size());
+                assertEquals(2 * SolutionStore.RECORD_SIZE, store.recoveredBytes);
+                assertBoards(store, 1);
+                assertNull(store.get(board(2), new byte[Board.SIZE]));
+            }
+            assertEquals(HEADER_SIZE + SolutionStore.RECORD_SIZE, Files.size(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    //solve searches only for boards the store does not know, including boards it knows to have no solution
+    @Test
+    public void solveSearchesOnlyOnMiss() throws IOException {
+        Path path = storeBoards(20);
+        try (SolutionStore store = SolutionStore.open(path)) {
+            byte[] solution = new byte[Board.SIZE];
+            SolutionCache.Search fail = (cells, out) -> {
+                throw new AssertionError("searched a stored board");
+            };
+            assertTrue(store.solve(board(5), solution, fail));
+            assertArrayEquals(solution(5), solution);
+            assertFalse(store.solve(board(10), solution, fail));
+            assertTrue(store.solve(board(20), solution, (cells, out) -> {
+                System.arraycopy(solution(20), 0, out, 0, Board.SIZE);
+                return true;
+            }));
+            assertEquals(21, store.size());
+            assertTrue(store.solve(board(20), solution, fail));
+            assertArrayEquals(solution(20), solution);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
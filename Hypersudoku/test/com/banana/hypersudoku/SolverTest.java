@@ -0,0 +1,57 @@
+package com.banana.hypersudoku;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class SolverTest {
+
+    //The solution of INPUT/Input1.txt with two cells of row 0 blanked and the 3 replaced by a second 9. The blank cells
+    //can still be filled without breaking any other unit, so only a check of the givens finds the clash
+    private static Integer[][] duplicateGivens() throws IOException {
+        Integer[][] assignment = Program.readBoard(Paths.get("../INPUT/Input1.txt"));
+        Integer[][] solution = new Solver().solve(assignment).solution;
+        solution[0][1] = 0;
+        solution[0][5] = 0;
+        solution[0][8] = solution[0][6];
+        return solution;
+    }
+
+    @Test
+    public void countRejectsDuplicateGivens() throws IOException {
+        for(String engine : new String[]{"backtrack", "dlx", "parallel"}) {
+            SolveResult result = new Solver(engine).count(duplicateGivens(), 2);
+            assertEquals(engine, 0, result.solutionCount);
+            assertNull(engine, result.solution);
+            assertFalse(engine, new Solver(engine).solve(duplicateGivens()).isSolved());
+        }
+    }
+
+    //Two 1s at the start of row 0 and nothing else given. Every other cell is blank, so without a check of the givens
+    //the search only finds out after trying every way to fill them
+    @Test(timeout = 10000)
+    public void solveRejectsDuplicateGivens() {
+        for(String engine : new String[]{"backtrack", "dlx", "parallel"}) {
+            Integer[][] assignment = new Integer[Program.ROW][Program.COL];
+            Program.fillZero(assignment);
+            assignment[0][0] = 1;
+            assignment[0][1] = 1;
+            SolveResult result = new Solver(engine).solve(assignment);
+            assertFalse(engine, result.isSolved());
+            assertNull(engine, result.solution);
+        }
+    }
+
+    @Test
+    public void duplicateGivensAreNotUnique() throws IOException {
+        Integer[][] assignment = duplicateGivens();
+        Pos[][] variableArray = new Pos[Program.ROW][Program.COL];
+        Program.initializeVar(variableArray, assignment);
+        assertFalse(Program.hasUniqueSolution(assignment, variableArray, Engine.forName("backtrack")));
+    }
+}
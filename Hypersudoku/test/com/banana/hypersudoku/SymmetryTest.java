@@ -0,0 +1,93 @@
+package com.banana.hypersudoku;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SymmetryTest {
+
+    private static final String[] INPUTS = {"Input1", "Input2", "Input3"};
+
+    //A relabeling that moves every value, 0 staying blank
+    private static final byte[] RELABEL = {0, 4, 9, 1, 7, 2, 8, 3, 6, 5};
+
+    static byte[] readCells(String name) throws IOException {
+        return cells(Program.readBoard(Paths.get("../INPUT/" + name + ".txt")));
+    }
+
+    static byte[] cells(Integer[][] assignment) {
+        byte[] cells = new byte[Board.SIZE];
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            cells[cell] = assignment[Topology.ROW_OF[cell]][Topology.COL_OF[cell]].byteValue();
+        }
+        return cells;
+    }
+
+    static Integer[][] assignment(byte[] cells) {
+        Integer[][] assignment = new Integer[Program.ROW][Program.COL];
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            assignment[Topology.ROW_OF[cell]][Topology.COL_OF[cell]] = (int) cells[cell];
+        }
+        return assignment;
+    }
+
+    //The board reordered by CELL_MAPS[t] and relabeled by RELABEL
+    static byte[] transform(byte[] cells, int t) {
+        byte[] out = new byte[Board.SIZE];
+        for(int cell = 0; cell < Board.SIZE; cell++) {
+            out[cell] = RELABEL[cells[Symmetry.CELL_MAPS[t][cell]]];
+        }
+        return out;
+    }
+
+    //Every transformation maps a solution to a solution, so it keeps rows, columns, boxes and overlaps intact
+    @Test
+    public void transformsKeepSolutionsValid() throws IOException {
+        byte[] solution = cells(new Solver().solve(Program.readBoard(Paths.get("../INPUT/Input1.txt"))).solution);
+        for(int t = 0; t < Symmetry.CELL_MAPS.length; t++) {
+            assertTrue("transform " + t, Constraint.isValid(assignment(transform(solution, t))));
+        }
+    }
+
+    @Test
+    public void equivalentBoardsShareKey() throws IOException {
+        for(String name : INPUTS) {
+            byte[] cells = readCells(name);
+            byte[] key = new byte[Board.SIZE];
+            Symmetry.canonicalize(cells, key);
+            byte[] other = new byte[Board.SIZE];
+            for(int t = 0; t < Symmetry.CELL_MAPS.length; t++) {
+                Symmetry.canonicalize(transform(cells, t), other);
+                assertArrayEquals(name + " transform " + t, key, other);
+            }
+        }
+    }
+
+    //The key is the board mapped to the canonical orientation, and mapping a solution there and back gives it back
+    @Test
+    public void fromCanonicalUndoesToCanonical() throws IOException {
+        for(String name : INPUTS) {
+            Integer[][] assignment = Program.readBoard(Paths.get("../INPUT/" + name + ".txt"));
+            byte[] solution = cells(new Solver().solve(assignment).solution);
+            for(int t = 0; t < Symmetry.CELL_MAPS.length; t += 7) {
+                byte[] cells = transform(cells(assignment), t);
+                byte[] key = new byte[Board.SIZE];
+                Symmetry symmetry = Symmetry.canonicalize(cells, key);
+                byte[] canonical = new byte[Board.SIZE];
+                byte[] back = new byte[Board.SIZE];
+                symmetry.toCanonical(cells, canonical);
+                assertArrayEquals(name + " transform " + t, key, canonical);
+                symmetry.fromCanonical(key, back);
+                assertArrayEquals(name + " transform " + t, cells, back);
+                byte[] transformed = transform(solution, t);
+                symmetry.toCanonical(transformed, canonical);
+                symmetry.fromCanonical(canonical, back);
+                assertArrayEquals(name + " transform " + t, transformed, back);
+            }
+        }
+    }
+}